@@ -0,0 +1,15 @@
+package com.shark.androidapng.apng;
+
+import java.io.IOException;
+
+/**
+ * Thrown when the bytes read are not a well formed png / apng.
+ */
+public class ApngFormatException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    public ApngFormatException(String message) {
+        super(message);
+    }
+}
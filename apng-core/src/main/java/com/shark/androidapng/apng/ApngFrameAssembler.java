@@ -0,0 +1,182 @@
+package com.shark.androidapng.apng;
+
+import com.shark.androidapng.apng.decoder.PngDecoder;
+import com.shark.androidapng.apng.entity.ChunkEntity;
+import com.shark.androidapng.apng.entity.FctlChunkEntity;
+import com.shark.androidapng.apng.entity.FdatChunkEntity;
+import com.shark.androidapng.apng.entity.FrameEntity;
+import com.shark.androidapng.apng.entity.IhdrChunkEntity;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Rebuilds a standalone png for one frame: signature, ihdr resized to the frame, plte,
+ * the other known chunks, the frame data and iend.
+ *
+ * Once set up, assembling changes nothing shared: the resized ihdr of every frame size is
+ * built once and kept, so frames can be assembled from several threads.
+ */
+public class ApngFrameAssembler {
+
+    private static final byte[] IEND_CHUNK_BYTES = new byte[]{0, 0, 0, 0,
+            (byte) 0x49, (byte) 0x45, (byte) 0x4E, (byte) 0x44,
+            (byte) 0xAE, (byte) 0x42, (byte) 0x60, (byte) 0x82};
+
+    private IhdrChunkEntity ihdrChunkEntity;
+    private ChunkEntity plteChunkEntity;
+    private List<ChunkEntity> unknowChunkList = new ArrayList<>();
+    private ChunkEntity iendChunkEntity;
+    /** resized ihdr by frame width and height, animations use a few sizes */
+    private final ConcurrentHashMap<Long, ChunkEntity> frameIhdrChunkEntityMap = new ConcurrentHashMap<>();
+    private ApngMetricsListener metricsListener = ApngMetricsListener.NO_OP;
+
+    public byte[] assemble(FrameEntity frameEntity) {
+        boolean measure = metricsListener.isEnabled();
+        long startNanos = measure ? System.nanoTime() : 0;
+        FctlChunkEntity fctlChunkEntity = frameEntity.getFrameControlChunk();
+        boolean rewrite = measure && !frameEntity.isFrameDataChunkListBuilt()
+                && frameEntity.getRawFrameDataChunk() instanceof FdatChunkEntity;
+        List<ChunkEntity> frameDataChunkList = frameEntity.getFrameDataChunkList();
+        int rewrittenBytes = 0;
+        if(rewrite) {
+            for(ChunkEntity chunkEntity: frameDataChunkList) {
+                rewrittenBytes = rewrittenBytes + chunkEntity.getChunkLength();
+            }
+            metricsListener.onFdatRewritten(fctlChunkEntity, rewrittenBytes, System.nanoTime() - startNanos);
+        }
+
+        ChunkEntity endChunkEntity = iendChunkEntity != null ? iendChunkEntity : createIendChunkEntity();
+
+        ChunkEntity frameIhdrChunkEntity = getFrameIhdrChunkEntity(fctlChunkEntity.getWidth(), fctlChunkEntity.getHeight());
+
+        int imageBytesSize = ApngParser.PNG_TAG_BYTES.length + frameIhdrChunkEntity.getChunkLength()
+                + endChunkEntity.getChunkLength();
+        if(plteChunkEntity != null) {
+            imageBytesSize = imageBytesSize + plteChunkEntity.getChunkLength();
+        }
+        for(ChunkEntity chunkEntity: unknowChunkList) {
+            imageBytesSize = imageBytesSize + chunkEntity.getChunkLength();
+        }
+        for(ChunkEntity chunkEntity: frameDataChunkList) {
+            imageBytesSize = imageBytesSize + chunkEntity.getChunkLength();
+        }
+        byte[] imageBytes = new byte[imageBytesSize];
+
+        System.arraycopy(ApngParser.PNG_TAG_BYTES, 0, imageBytes, 0, ApngParser.PNG_TAG_BYTES.length);
+        int startIndex = write(frameIhdrChunkEntity, imageBytes, ApngParser.PNG_TAG_BYTES.length);
+        if(plteChunkEntity != null) {
+            startIndex = write(plteChunkEntity, imageBytes, startIndex);
+        }
+        for(ChunkEntity chunkEntity: unknowChunkList) {
+            startIndex = write(chunkEntity, imageBytes, startIndex);
+        }
+        // split frame data stays split, a png may have any number of IDAT chunks
+        for(ChunkEntity chunkEntity: frameDataChunkList) {
+            startIndex = write(chunkEntity, imageBytes, startIndex);
+        }
+        write(endChunkEntity, imageBytes, startIndex);
+        if(measure) {
+            metricsListener.onFrameAssembled(fctlChunkEntity, imageBytes.length + rewrittenBytes, System.nanoTime() - startNanos);
+        }
+        return imageBytes;
+    }
+
+    /**
+     * @return the ihdr with the frame size, the parsed ihdr itself when the size is the same
+     */
+    public ChunkEntity getFrameIhdrChunkEntity(int width, int height) {
+        if(width == ihdrChunkEntity.getWidth() && height == ihdrChunkEntity.getHeight()) {
+            return ihdrChunkEntity;
+        }
+        Long key = (long) width << 32 | height & 0xFFFFFFFFL;
+        ChunkEntity frameIhdrChunkEntity = frameIhdrChunkEntityMap.get(key);
+        if(frameIhdrChunkEntity == null) {
+            // two threads may both build it, either copy is the same
+            frameIhdrChunkEntity = ihdrChunkEntity.resize(width, height);
+            frameIhdrChunkEntityMap.put(key, frameIhdrChunkEntity);
+        }
+        return frameIhdrChunkEntity;
+    }
+
+    private static int write(ChunkEntity chunkEntity, byte[] imageBytes, int startIndex) {
+        chunkEntity.writeTo(imageBytes, startIndex);
+        return startIndex + chunkEntity.getChunkLength();
+    }
+
+    /**
+     * A streamed image has not reached its iend yet when the first frames are assembled.
+     */
+    private ChunkEntity createIendChunkEntity() {
+        ChunkEntity chunkEntity = new ChunkEntity();
+        chunkEntity.setLength(0);
+        chunkEntity.setTag(ApngParser.IEND_TAG);
+        chunkEntity.setBuffer(ByteBuffer.wrap(IEND_CHUNK_BYTES).asReadOnlyBuffer(), 0);
+        return chunkEntity;
+    }
+
+    /**
+     * The decoder reads the frame data directly, it only needs the image header chunks.
+     */
+    public PngDecoder createDecoder() throws ApngFormatException {
+        PngDecoder decoder = new PngDecoder(ihdrChunkEntity, plteChunkEntity, getTrnsChunkEntity());
+        decoder.setMetricsListener(metricsListener);
+        return decoder;
+    }
+
+    public ApngMetricsListener getMetricsListener() {
+        return metricsListener;
+    }
+
+    /**
+     * @param metricsListener told about every assembled frame and every decoder created, null
+     *                        for none
+     */
+    public void setMetricsListener(ApngMetricsListener metricsListener) {
+        this.metricsListener = metricsListener != null ? metricsListener : ApngMetricsListener.NO_OP;
+    }
+
+    public ChunkEntity getTrnsChunkEntity() {
+        for(ChunkEntity chunkEntity: unknowChunkList) {
+            if(ApngParser.TRNS_TAG.equals(chunkEntity.getTag())) {
+                return chunkEntity;
+            }
+        }
+        return null;
+    }
+
+    public IhdrChunkEntity getIhdrChunkEntity() {
+        return ihdrChunkEntity;
+    }
+
+    public void setIhdrChunkEntity(IhdrChunkEntity ihdrChunkEntity) {
+        this.ihdrChunkEntity = ihdrChunkEntity;
+        frameIhdrChunkEntityMap.clear();
+    }
+
+    public ChunkEntity getPlteChunkEntity() {
+        return plteChunkEntity;
+    }
+
+    public void setPlteChunkEntity(ChunkEntity plteChunkEntity) {
+        this.plteChunkEntity = plteChunkEntity;
+    }
+
+    public List<ChunkEntity> getUnknowChunkList() {
+        return unknowChunkList;
+    }
+
+    public void setUnknowChunkList(List<ChunkEntity> unknowChunkList) {
+        this.unknowChunkList = unknowChunkList;
+    }
+
+    public ChunkEntity getIendChunkEntity() {
+        return iendChunkEntity;
+    }
+
+    public void setIendChunkEntity(ChunkEntity iendChunkEntity) {
+        this.iendChunkEntity = iendChunkEntity;
+    }
+}
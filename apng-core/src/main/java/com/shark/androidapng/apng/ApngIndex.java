@@ -0,0 +1,328 @@
+package com.shark.androidapng.apng;
+
+import com.shark.androidapng.apng.entity.ChunkEntity;
+import com.shark.androidapng.apng.entity.FctlChunkEntity;
+import com.shark.androidapng.apng.source.ApngSource;
+import com.shark.androidapng.util.ByteUtil;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * What {@link ApngParser} found in an image, stored next to the image so reopening it does not
+ * scan the chunks again: offset, length and tag of every chunk, the fields of every fcTL and the
+ * sequence number of every fdAT. See {@link ApngParser#createIndex()} and
+ * {@link ApngParser#ApngParser(ApngSource, ApngIndex)}.
+ *
+ * An index is checked against its image by the image length, the png signature, the ihdr and a
+ * crc of the first and the last {@link #CHECKSUM_BYTES_LENGTH} bytes, so only two pages of a
+ * mapped image are read. That is meant for images replaced as a whole, like files of a disk
+ * cache, an image edited in place keeping its length could pass the check.
+ */
+public class ApngIndex {
+
+    public static final int CHECKSUM_BYTES_LENGTH = 4096;
+
+    private static final int MAGIC = 0x41504E58;
+    private static final int VERSION = 2;
+
+    private static final int MIN_CHUNK_BYTES_LENGTH = ChunkEntity.LENGTH_BYTES_LENGTH + ChunkEntity.TAG_BYTES_LENGTH
+            + ChunkEntity.CRC_BYTES_LENGTH;
+    private static final int IHDR_DATA_LENGTH = 13;
+    private static final int ACTL_DATA_LENGTH = 8;
+    private static final int FCTL_DATA_LENGTH = 26;
+    private static final int FDAT_SEQUENCE_NUMBER_LENGTH = 4;
+    private static final int IHDR_TAG_INT = ByteBuffer.wrap(ApngParser.IHDR_TAG_BYTES).getInt();
+    private static final int ACTL_TAG_INT = ByteBuffer.wrap(ApngParser.ACTL_TAG_BYTES).getInt();
+    private static final int FCTL_TAG_INT = ByteBuffer.wrap(ApngParser.FCTL_TAG_BYTES).getInt();
+    private static final int FDAT_TAG_INT = ByteBuffer.wrap(ApngParser.FDAT_TAG_BYTES).getInt();
+
+    private final int sourceLength;
+    private final int sourceChecksum;
+    private final long contentHash;
+    private final boolean isApng;
+
+    private final int[] chunkOffsets;
+    private final int[] chunkLengths;
+    private final int[] chunkTags;
+
+    private final int[] fctlSequenceNumbers;
+    private final int[] fctlWidths;
+    private final int[] fctlHeights;
+    private final int[] fctlXOffsets;
+    private final int[] fctlYOffsets;
+    private final short[] fctlDelayNumbers;
+    private final short[] fctlDelayDens;
+    private final byte[] fctlDisposeOps;
+    private final byte[] fctlBlendOps;
+
+    private final int[] fdatSequenceNumbers;
+
+    ApngIndex(int sourceLength, int sourceChecksum, long contentHash, boolean isApng,
+              int chunkCount, int fctlCount, int fdatCount) {
+        this.sourceLength = sourceLength;
+        this.sourceChecksum = sourceChecksum;
+        this.contentHash = contentHash;
+        this.isApng = isApng;
+        chunkOffsets = new int[chunkCount];
+        chunkLengths = new int[chunkCount];
+        chunkTags = new int[chunkCount];
+        fctlSequenceNumbers = new int[fctlCount];
+        fctlWidths = new int[fctlCount];
+        fctlHeights = new int[fctlCount];
+        fctlXOffsets = new int[fctlCount];
+        fctlYOffsets = new int[fctlCount];
+        fctlDelayNumbers = new short[fctlCount];
+        fctlDelayDens = new short[fctlCount];
+        fctlDisposeOps = new byte[fctlCount];
+        fctlBlendOps = new byte[fctlCount];
+        fdatSequenceNumbers = new int[fdatCount];
+    }
+
+    /**
+     * Counts, offsets and lengths are checked against the image length stored in the index, so
+     * a damaged index can not allocate more than the image could hold or point past its end.
+     * The header chunks must have their fixed lengths and the body has to match the crc written
+     * after it.
+     *
+     * @throws ApngFormatException when the stream is not a valid index, parse the image instead
+     */
+    public static ApngIndex read(InputStream inputStream) throws IOException {
+        DataInputStream dataInputStream = new DataInputStream(inputStream);
+        if(dataInputStream.readInt() != MAGIC) {
+            throw new ApngFormatException("not an apng index");
+        }
+        int version = dataInputStream.readInt();
+        if(version != VERSION) {
+            throw new ApngFormatException("unsupported apng index version: " + version);
+        }
+        CheckedInputStream checkedInputStream = new CheckedInputStream(inputStream, new CRC32());
+        DataInputStream bodyInputStream = new DataInputStream(checkedInputStream);
+        int sourceLength = bodyInputStream.readInt();
+        int sourceChecksum = bodyInputStream.readInt();
+        long contentHash = bodyInputStream.readLong();
+        boolean isApng = bodyInputStream.readBoolean();
+        int chunkCount = bodyInputStream.readInt();
+        int fctlCount = bodyInputStream.readInt();
+        int fdatCount = bodyInputStream.readInt();
+        int maxChunkCount = Math.max(0, (sourceLength - ApngParser.PNG_TAG_BYTES.length) / MIN_CHUNK_BYTES_LENGTH);
+        if(sourceLength < 0 || chunkCount < 0 || fctlCount < 0 || fdatCount < 0 || chunkCount > maxChunkCount
+                || fctlCount + fdatCount > chunkCount) {
+            throw new ApngFormatException("invalid apng index counts");
+        }
+        ApngIndex apngIndex = new ApngIndex(sourceLength, sourceChecksum, contentHash, isApng, chunkCount, fctlCount, fdatCount);
+        int chunkFctlCount = 0;
+        int chunkFdatCount = 0;
+        for(int i = 0; i < chunkCount; i++) {
+            int offset = bodyInputStream.readInt();
+            int length = bodyInputStream.readInt();
+            int tag = bodyInputStream.readInt();
+            if(offset < ApngParser.PNG_TAG_BYTES.length || length < 0
+                    || (long) offset + MIN_CHUNK_BYTES_LENGTH + length > sourceLength
+                    || !isChunkLengthValid(tag, length)) {
+                throw new ApngFormatException("invalid apng index chunk " + i + ", offset: " + offset + ", length: " + length);
+            }
+            apngIndex.setChunk(i, offset, length, tag);
+            if(tag == FCTL_TAG_INT) {
+                chunkFctlCount = chunkFctlCount + 1;
+            } else if(tag == FDAT_TAG_INT) {
+                chunkFdatCount = chunkFdatCount + 1;
+            }
+        }
+        if(chunkFctlCount != fctlCount || chunkFdatCount != fdatCount) {
+            throw new ApngFormatException("invalid apng index counts");
+        }
+        for(int i = 0; i < fctlCount; i++) {
+            apngIndex.fctlSequenceNumbers[i] = bodyInputStream.readInt();
+            apngIndex.fctlWidths[i] = bodyInputStream.readInt();
+            apngIndex.fctlHeights[i] = bodyInputStream.readInt();
+            apngIndex.fctlXOffsets[i] = bodyInputStream.readInt();
+            apngIndex.fctlYOffsets[i] = bodyInputStream.readInt();
+            apngIndex.fctlDelayNumbers[i] = bodyInputStream.readShort();
+            apngIndex.fctlDelayDens[i] = bodyInputStream.readShort();
+            apngIndex.fctlDisposeOps[i] = bodyInputStream.readByte();
+            apngIndex.fctlBlendOps[i] = bodyInputStream.readByte();
+        }
+        for(int i = 0; i < fdatCount; i++) {
+            apngIndex.fdatSequenceNumbers[i] = bodyInputStream.readInt();
+        }
+        int crc = (int) checkedInputStream.getChecksum().getValue();
+        if(dataInputStream.readInt() != crc) {
+            throw new ApngFormatException("apng index crc mismatch");
+        }
+        return apngIndex;
+    }
+
+    /**
+     * ihdr, acTL and fcTL have fixed lengths, an fdAT starts with its sequence number.
+     */
+    private static boolean isChunkLengthValid(int tag, int length) {
+        if(tag == IHDR_TAG_INT) {
+            return length == IHDR_DATA_LENGTH;
+        } else if(tag == ACTL_TAG_INT) {
+            return length == ACTL_DATA_LENGTH;
+        } else if(tag == FCTL_TAG_INT) {
+            return length == FCTL_DATA_LENGTH;
+        } else if(tag == FDAT_TAG_INT) {
+            return length >= FDAT_SEQUENCE_NUMBER_LENGTH;
+        }
+        return true;
+    }
+
+    public void write(OutputStream outputStream) throws IOException {
+        DataOutputStream dataOutputStream = new DataOutputStream(outputStream);
+        dataOutputStream.writeInt(MAGIC);
+        dataOutputStream.writeInt(VERSION);
+        dataOutputStream.flush();
+        CheckedOutputStream checkedOutputStream = new CheckedOutputStream(outputStream, new CRC32());
+        DataOutputStream bodyOutputStream = new DataOutputStream(checkedOutputStream);
+        bodyOutputStream.writeInt(sourceLength);
+        bodyOutputStream.writeInt(sourceChecksum);
+        bodyOutputStream.writeLong(contentHash);
+        bodyOutputStream.writeBoolean(isApng);
+        bodyOutputStream.writeInt(chunkOffsets.length);
+        bodyOutputStream.writeInt(fctlSequenceNumbers.length);
+        bodyOutputStream.writeInt(fdatSequenceNumbers.length);
+        for(int i = 0; i < chunkOffsets.length; i++) {
+            bodyOutputStream.writeInt(chunkOffsets[i]);
+            bodyOutputStream.writeInt(chunkLengths[i]);
+            bodyOutputStream.writeInt(chunkTags[i]);
+        }
+        for(int i = 0; i < fctlSequenceNumbers.length; i++) {
+            bodyOutputStream.writeInt(fctlSequenceNumbers[i]);
+            bodyOutputStream.writeInt(fctlWidths[i]);
+            bodyOutputStream.writeInt(fctlHeights[i]);
+            bodyOutputStream.writeInt(fctlXOffsets[i]);
+            bodyOutputStream.writeInt(fctlYOffsets[i]);
+            bodyOutputStream.writeShort(fctlDelayNumbers[i]);
+            bodyOutputStream.writeShort(fctlDelayDens[i]);
+            bodyOutputStream.writeByte(fctlDisposeOps[i]);
+            bodyOutputStream.writeByte(fctlBlendOps[i]);
+        }
+        for(int sequenceNumber: fdatSequenceNumbers) {
+            bodyOutputStream.writeInt(sequenceNumber);
+        }
+        bodyOutputStream.flush();
+        dataOutputStream.writeInt((int) checkedOutputStream.getChecksum().getValue());
+        dataOutputStream.flush();
+    }
+
+    /**
+     * @throws ApngFormatException when the index was not created for the image of the source
+     */
+    public void checkSource(ApngSource source) throws ApngFormatException {
+        if(source.getLength() != sourceLength || computeChecksum(source) != sourceChecksum) {
+            throw new ApngFormatException("apng index does not match the image");
+        }
+        ByteBuffer buffer = source.getBuffer();
+        for(int i = 0; i < ApngParser.PNG_TAG_BYTES.length; i++) {
+            if(sourceLength <= i || buffer.get(i) != ApngParser.PNG_TAG_BYTES[i]) {
+                throw new ApngFormatException("not a png");
+            }
+        }
+        if(!isApng) {
+            return;
+        }
+        int ihdrTagOffset = ApngParser.PNG_TAG_BYTES.length + ChunkEntity.LENGTH_BYTES_LENGTH;
+        if(chunkOffsets.length == 0 || chunkOffsets[0] != ApngParser.PNG_TAG_BYTES.length
+                || chunkTags[0] != buffer.getInt(ihdrTagOffset)) {
+            throw new ApngFormatException("apng index does not start with ihdr");
+        }
+    }
+
+    /**
+     * A crc of the first and the last bytes of the image, see {@link #CHECKSUM_BYTES_LENGTH}.
+     */
+    static int computeChecksum(ApngSource source) {
+        ByteBuffer buffer = source.getBuffer();
+        int length = source.getLength();
+        CRC32 crc32 = new CRC32();
+        byte[] checksumBytes = new byte[Math.min(length, CHECKSUM_BYTES_LENGTH)];
+        ByteUtil.copyBytes(buffer, 0, checksumBytes, 0, checksumBytes.length);
+        crc32.update(checksumBytes);
+        ByteUtil.copyBytes(buffer, length - checksumBytes.length, checksumBytes, 0, checksumBytes.length);
+        crc32.update(checksumBytes);
+        return (int) crc32.getValue();
+    }
+
+    void setChunk(int chunkIndex, int offset, int length, int tag) {
+        chunkOffsets[chunkIndex] = offset;
+        chunkLengths[chunkIndex] = length;
+        chunkTags[chunkIndex] = tag;
+    }
+
+    void setFctl(int fctlIndex, FctlChunkEntity fctlChunkEntity) {
+        fctlSequenceNumbers[fctlIndex] = fctlChunkEntity.getSequenceNumber();
+        fctlWidths[fctlIndex] = fctlChunkEntity.getWidth();
+        fctlHeights[fctlIndex] = fctlChunkEntity.getHeight();
+        fctlXOffsets[fctlIndex] = fctlChunkEntity.getxOffset();
+        fctlYOffsets[fctlIndex] = fctlChunkEntity.getyOffset();
+        fctlDelayNumbers[fctlIndex] = (short) fctlChunkEntity.getDelayNumber();
+        fctlDelayDens[fctlIndex] = (short) fctlChunkEntity.getDelayDen();
+        fctlDisposeOps[fctlIndex] = (byte) fctlChunkEntity.getDisposeOp();
+        fctlBlendOps[fctlIndex] = (byte) fctlChunkEntity.getBlendOp();
+    }
+
+    /**
+     * Set the fields of the n-th fcTL of the image, its buffer is not read.
+     */
+    void readFctl(int fctlIndex, FctlChunkEntity fctlChunkEntity) {
+        fctlChunkEntity.setSequenceNumber(fctlSequenceNumbers[fctlIndex]);
+        fctlChunkEntity.setWidth(fctlWidths[fctlIndex]);
+        fctlChunkEntity.setHeight(fctlHeights[fctlIndex]);
+        fctlChunkEntity.setxOffset(fctlXOffsets[fctlIndex]);
+        fctlChunkEntity.setyOffset(fctlYOffsets[fctlIndex]);
+        fctlChunkEntity.setDelayNumber(fctlDelayNumbers[fctlIndex]);
+        fctlChunkEntity.setDelayDen(fctlDelayDens[fctlIndex]);
+        fctlChunkEntity.setDisposeOp(fctlDisposeOps[fctlIndex]);
+        fctlChunkEntity.setBlendOp(fctlBlendOps[fctlIndex]);
+    }
+
+    void setFdatSequenceNumber(int fdatIndex, int sequenceNumber) {
+        fdatSequenceNumbers[fdatIndex] = sequenceNumber;
+    }
+
+    int getFdatSequenceNumber(int fdatIndex) {
+        return fdatSequenceNumbers[fdatIndex];
+    }
+
+    public int getSourceLength() {
+        return sourceLength;
+    }
+
+    public long getContentHash() {
+        return contentHash;
+    }
+
+    public boolean isApng() {
+        return isApng;
+    }
+
+    public int getChunkCount() {
+        return chunkOffsets.length;
+    }
+
+    public int getChunkOffset(int chunkIndex) {
+        return chunkOffsets[chunkIndex];
+    }
+
+    public int getChunkLength(int chunkIndex) {
+        return chunkLengths[chunkIndex];
+    }
+
+    public String getChunkTag(int chunkIndex) {
+        return new String(ByteUtil.intToBytes(chunkTags[chunkIndex]), StandardCharsets.UTF_8);
+    }
+
+    public int getFctlCount() {
+        return fctlSequenceNumbers.length;
+    }
+}
@@ -0,0 +1,28 @@
+package com.shark.androidapng.apng;
+
+/**
+ * Diagnostics of the parser, given with {@link ApngParser.Builder#setLogger(ApngLogger)}.
+ * Trace messages are only built when {@link #isTraceEnabled()} is true, so a disabled logger
+ * costs one check per parse.
+ */
+public interface ApngLogger {
+
+    /** logs nothing, the default */
+    ApngLogger NONE = new ApngLogger() {
+        @Override
+        public boolean isTraceEnabled() {
+            return false;
+        }
+
+        @Override
+        public void trace(String message) {
+        }
+    };
+
+    /**
+     * @return true to get a message for every chunk parsed and every frame generated
+     */
+    boolean isTraceEnabled();
+
+    void trace(String message);
+}
@@ -0,0 +1,67 @@
+package com.shark.androidapng.apng;
+
+import com.shark.androidapng.apng.entity.FctlChunkEntity;
+
+import java.util.Map;
+
+/**
+ * Where the time of an image goes, given with
+ * {@link ApngParser.Builder#setMetricsListener(ApngMetricsListener)} and handed on to the frame
+ * assembler and the decoders of the parser. Times are in nanoseconds, allocations are the bytes
+ * of the arrays the library allocated itself.
+ *
+ * Called on the thread doing the work, frames may be reported from several threads. Give each
+ * parser its own listener to tell the images apart. {@link #NO_OP} is the default: with it no
+ * clock is read and nothing is counted.
+ */
+public abstract class ApngMetricsListener {
+
+    public static final ApngMetricsListener NO_OP = new ApngMetricsListener() {
+        @Override
+        public boolean isEnabled() {
+            return false;
+        }
+    };
+
+    /**
+     * @return false to skip every measure, checked once per parse or frame
+     */
+    public boolean isEnabled() {
+        return true;
+    }
+
+    /**
+     * An animated image was parsed, plain png are not reported.
+     *
+     * @param bytesScanned bytes of the image read to parse it
+     * @param chunkCounts chunks parsed by tag
+     */
+    public void onImageParsed(long contentHash, long bytesScanned, Map<String, Integer> chunkCounts, long parseNanos) {
+    }
+
+    /**
+     * A standalone png was rebuilt for the frame.
+     *
+     * @param allocatedBytes the png and the chunks rewritten for it
+     */
+    public void onFrameAssembled(FctlChunkEntity fctlChunkEntity, int allocatedBytes, long nanos) {
+    }
+
+    /**
+     * The fdAT chunks of a frame were rewritten into IDAT chunks with their crc, once per frame.
+     *
+     * @param bytes size of the IDAT chunks written
+     */
+    public void onFdatRewritten(FctlChunkEntity fctlChunkEntity, int bytes, long nanos) {
+    }
+
+    /**
+     * The frame region was decoded into pixels.
+     *
+     * @param fctlChunkEntity null when the decoder was given chunks instead of a frame
+     * @param allocatedBytes buffers the decoder grew for this frame, 0 once it is warmed up and
+     *                       for frames given to a {@link com.shark.androidapng.apng.decoder.FrameDecoder}
+     */
+    public void onFrameDecoded(FctlChunkEntity fctlChunkEntity, int allocatedBytes, long nanos) {
+    }
+}
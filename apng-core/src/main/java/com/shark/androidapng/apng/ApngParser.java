@@ -0,0 +1,687 @@
+package com.shark.androidapng.apng;
+
+import com.shark.androidapng.apng.decoder.FrameDecoder;
+import com.shark.androidapng.apng.decoder.PngDecoder;
+import com.shark.androidapng.apng.entity.ActlChunkEntity;
+import com.shark.androidapng.apng.entity.ChunkEntity;
+import com.shark.androidapng.apng.entity.FctlChunkEntity;
+import com.shark.androidapng.apng.entity.FdatChunkEntity;
+import com.shark.androidapng.apng.entity.FrameEntity;
+import com.shark.androidapng.apng.entity.IhdrChunkEntity;
+import com.shark.androidapng.apng.source.ApngSource;
+import com.shark.androidapng.apng.source.ByteArraySource;
+import com.shark.androidapng.util.ByteUtil;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Created by Shark0 on 2016/9/13.
+ */
+public class ApngParser {
+
+    public static final byte[] PNG_TAG_BYTES = new byte[]{(byte) 0x89, (byte) 0x50, (byte) 0x4E, (byte) 0x47, (byte) 0x0D, (byte) 0x0A, (byte) 0x1A, (byte) 0x0A};
+
+    public static final byte[] IHDR_TAG_BYTES = new byte[]{(byte) 0x49, (byte) 0x48, (byte) 0x44, (byte) 0x52};
+
+    public static final byte[] ACTL_TAG_BYTES = new byte[]{(byte) 0x61, (byte) 0x63, (byte) 0x54, (byte) 0x4c};
+
+    public static final byte[] FCTL_TAG_BYTES = new byte[]{(byte) 0x66, (byte) 0x63, (byte) 0x54, (byte) 0x4c};
+
+    public static final byte[] IDAT_TAG_BYTES = new byte[]{(byte) 0x49, (byte) 0x44, (byte) 0x41, (byte) 0x54};
+
+    public static final byte[] FDAT_TAG_BYTES = new byte[]{(byte) 0x66, (byte) 0x64, (byte) 0x41, (byte) 0x54};
+
+    public static final byte[] IEND_TAG_BYTES = new byte[]{(byte) 0x49, (byte) 0x45, (byte) 0x4E, (byte) 0x44};
+
+    public static final String IHDR_TAG = "IHDR";
+    public static final String PLTE_TAG = "PLTE";
+    public static final String ACTL_TAG = "acTL";
+    public static final String IDAT_TAG = "IDAT";
+    public static final String FCTL_TAG = "fcTL";
+    public static final String FDAT_TAG = "fdAT";
+    public static final String IEND_TAG = "IEND";
+    public static final String TRNS_TAG = "tRNS";
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private static final int MAX_FRAME_CAPACITY_HINT = 4096;
+
+    /** bytes of a chunk or frame written to the trace */
+    private static final int HEX_PREVIEW_BYTES_LENGTH = 32;
+
+    private static final int ACTL_TAG_INT = ByteBuffer.wrap(ACTL_TAG_BYTES).getInt();
+    private static final int IDAT_TAG_INT = ByteBuffer.wrap(IDAT_TAG_BYTES).getInt();
+    private static final int IEND_TAG_INT = ByteBuffer.wrap(IEND_TAG_BYTES).getInt();
+
+    private final int CHUNK_DATA_LENGTH_BYTES_LENGTH = ChunkEntity.LENGTH_BYTES_LENGTH;
+    private final int CHUNK_TAG_BYTES_LENGTH = ChunkEntity.TAG_BYTES_LENGTH;
+
+    /**
+     * Options of a parser, the constructors use the defaults.
+     */
+    public static class Builder {
+
+        private ApngLogger logger = ApngLogger.NONE;
+        private ApngMetricsListener metricsListener = ApngMetricsListener.NO_OP;
+        private CrcVerifyMode crcVerifyMode = CrcVerifyMode.OFF;
+
+        /**
+         * @param logger null for {@link ApngLogger#NONE}
+         */
+        public Builder setLogger(ApngLogger logger) {
+            this.logger = logger != null ? logger : ApngLogger.NONE;
+            return this;
+        }
+
+        /**
+         * @param metricsListener null for {@link ApngMetricsListener#NO_OP}
+         */
+        public Builder setMetricsListener(ApngMetricsListener metricsListener) {
+            this.metricsListener = metricsListener != null ? metricsListener : ApngMetricsListener.NO_OP;
+            return this;
+        }
+
+        /**
+         * @param crcVerifyMode null for {@link CrcVerifyMode#OFF}
+         */
+        public Builder setCrcVerifyMode(CrcVerifyMode crcVerifyMode) {
+            this.crcVerifyMode = crcVerifyMode != null ? crcVerifyMode : CrcVerifyMode.OFF;
+            return this;
+        }
+
+        /**
+         * @throws ApngFormatException when a chunk fails the crc verify mode
+         */
+        public ApngParser build(byte[] imageBytes) throws ApngFormatException {
+            return verify(new ApngParser(new ByteArraySource(imageBytes), this));
+        }
+
+        /**
+         * @see ApngParser#ApngParser(ApngSource)
+         */
+        public ApngParser build(ApngSource source) throws ApngFormatException {
+            return verify(new ApngParser(source, this));
+        }
+
+        /**
+         * @see ApngParser#ApngParser(ApngSource, ApngIndex)
+         */
+        public ApngParser build(ApngSource source, ApngIndex apngIndex) throws ApngFormatException {
+            return verify(new ApngParser(source, apngIndex, this));
+        }
+
+        /**
+         * Reopen an image with the index read from indexStream, the image is parsed as
+         * {@link #build(ApngSource)} does when the index is damaged or was not created for it,
+         * whatever fails while the index is read or the chunks are rebuilt from it.
+         *
+         * @throws ApngFormatException when a chunk fails the crc verify mode
+         */
+        public ApngParser build(ApngSource source, InputStream indexStream) throws ApngFormatException {
+            ApngParser apngParser;
+            try {
+                apngParser = new ApngParser(source, ApngIndex.read(indexStream), this);
+            } catch (IOException | RuntimeException e) {
+                if(logger.isTraceEnabled()) {
+                    logger.trace("apng index not used: " + e);
+                }
+                return build(source);
+            }
+            return verify(apngParser);
+        }
+
+        private ApngParser verify(ApngParser apngParser) throws ApngFormatException {
+            apngParser.verifyCrc(crcVerifyMode);
+            return apngParser;
+        }
+    }
+
+    private final ApngLogger logger;
+    private final ApngMetricsListener metricsListener;
+
+    private ApngSource source;
+    private ByteBuffer imageBuffer;
+    private boolean isApng;
+    private int width;
+    private int height;
+    private long contentHash;
+
+    private IhdrChunkEntity ihdrChunkEntity;
+    private ChunkEntity plteChunkEntity;
+    private ActlChunkEntity actlChunkEntity;
+
+    private List<ChunkEntity> chunkList = new ArrayList<>();
+    private FrameTable frameTable = new FrameTable(0);
+    private List<FrameEntity> frameList = new FrameList(frameTable, chunkList);
+    private List<ChunkEntity> unknowChunkList = new ArrayList<>();
+
+    private ChunkEntity iendChunkEntity;
+    /** fcTL waiting for the first chunk of its frame data */
+    private FctlChunkEntity pendingFctlChunkEntity;
+    private int pendingFctlChunkIndex;
+    private ChunkEntity lastFrameDataChunkEntity;
+
+    private ApngFrameAssembler frameAssembler = new ApngFrameAssembler();
+
+
+
+    public ApngParser(byte[] imageBytes) throws ApngFormatException {
+        this(new ByteArraySource(imageBytes));
+    }
+
+    /**
+     * Chunks point into the buffer of the source, keep it open while the parser is used.
+     *
+     * @throws ApngFormatException when a chunk length is negative or runs past the end of the
+     * image
+     */
+    public ApngParser(ApngSource source) throws ApngFormatException {
+        this(source, new Builder());
+    }
+
+    private ApngParser(ApngSource source, Builder builder) throws ApngFormatException {
+        this.source = source;
+        logger = builder.logger;
+        metricsListener = builder.metricsListener;
+        frameAssembler.setMetricsListener(metricsListener);
+        boolean measure = metricsListener.isEnabled();
+        long startNanos = measure ? System.nanoTime() : 0;
+        imageBuffer = source.getBuffer();
+
+        isApng = findActlOffset(imageBuffer) != -1;
+        if(!isApng) {
+            return;
+        }
+
+        contentHash = (FNV_OFFSET_BASIS ^ source.getLength()) * FNV_PRIME;
+        // nothing is built for the trace unless it is written
+        boolean trace = logger.isTraceEnabled();
+        Map<String, Integer> chunkCounts = measure ? new HashMap<String, Integer>() : null;
+        byte[] tagBytes = new byte[CHUNK_TAG_BYTES_LENGTH];
+        int chunkLengthStartIndex = PNG_TAG_BYTES.length;
+        int i = 0;
+        while(chunkLengthStartIndex + CHUNK_DATA_LENGTH_BYTES_LENGTH < source.getLength()) {
+            int length = imageBuffer.getInt(chunkLengthStartIndex);
+            checkChunkLength(chunkLengthStartIndex, length, source.getLength());
+            ByteUtil.copyBytes(imageBuffer, chunkLengthStartIndex + CHUNK_DATA_LENGTH_BYTES_LENGTH, tagBytes, 0, CHUNK_TAG_BYTES_LENGTH);
+            String tag = new String(tagBytes, StandardCharsets.UTF_8);
+            ChunkEntity chunkEntity = createChunkEntity(tag);
+            chunkEntity.setLength(length);
+            chunkEntity.setTag(tag);
+            chunkEntity.setBuffer(imageBuffer, chunkLengthStartIndex);
+            if(trace) {
+                logger.trace("chunk " + i + ": " + tag + ", offset: " + chunkLengthStartIndex + ", length: " + length
+                        + ", crc: " + Integer.toHexString(chunkEntity.getCrc())
+                        + ", data: " + ByteUtil.toHexPreview(imageBuffer, chunkEntity.getDataOffset(), length, HEX_PREVIEW_BYTES_LENGTH));
+            }
+            if(measure) {
+                countChunk(chunkCounts, tag);
+            }
+            contentHash = (contentHash ^ (chunkEntity.getCrc() & 0xFFFFFFFFL)) * FNV_PRIME;
+            addChunkEntity(chunkEntity);
+            chunkLengthStartIndex = chunkLengthStartIndex + chunkEntity.getChunkLength();
+            i = i + 1;
+        }
+        setUpFrameAssembler();
+        if(measure) {
+            metricsListener.onImageParsed(contentHash, Math.min(chunkLengthStartIndex, source.getLength()),
+                    chunkCounts, System.nanoTime() - startNanos);
+        }
+    }
+
+    /**
+     * A negative length would walk back over the same chunks forever.
+     */
+    private static void checkChunkLength(int chunkStart, int length, long sourceLength) throws ApngFormatException {
+        if(length < 0 || (long) chunkStart + ChunkEntity.LENGTH_BYTES_LENGTH + ChunkEntity.TAG_BYTES_LENGTH
+                + length + ChunkEntity.CRC_BYTES_LENGTH > sourceLength) {
+            throw new ApngFormatException("invalid chunk length " + length + " at offset " + chunkStart);
+        }
+    }
+
+    /**
+     * Reopen an image with the index created by {@link #createIndex()}: only the header and the
+     * checksum of the image are checked, no chunk is scanned and no frame data is read.
+     *
+     * @throws ApngFormatException when the index was not created for this image
+     */
+    public ApngParser(ApngSource source, ApngIndex apngIndex) throws ApngFormatException {
+        this(source, apngIndex, new Builder());
+    }
+
+    private ApngParser(ApngSource source, ApngIndex apngIndex, Builder builder) throws ApngFormatException {
+        this.source = source;
+        logger = builder.logger;
+        metricsListener = builder.metricsListener;
+        frameAssembler.setMetricsListener(metricsListener);
+        boolean measure = metricsListener.isEnabled();
+        long startNanos = measure ? System.nanoTime() : 0;
+        imageBuffer = source.getBuffer();
+        apngIndex.checkSource(source);
+        isApng = apngIndex.isApng();
+        contentHash = apngIndex.getContentHash();
+        if(!isApng) {
+            return;
+        }
+
+        Map<String, Integer> chunkCounts = measure ? new HashMap<String, Integer>() : null;
+        int fctlIndex = 0;
+        int fdatIndex = 0;
+        for(int i = 0; i < apngIndex.getChunkCount(); i++) {
+            String tag = apngIndex.getChunkTag(i);
+            ChunkEntity chunkEntity = createChunkEntity(tag);
+            chunkEntity.setLength(apngIndex.getChunkLength(i));
+            chunkEntity.setTag(tag);
+            int offset = apngIndex.getChunkOffset(i);
+            switch (tag) {
+                case IHDR_TAG:
+                case ACTL_TAG:
+                    // header chunks, read anyway by the check of the index
+                    chunkEntity.setBuffer(imageBuffer, offset);
+                    break;
+                case FCTL_TAG:
+                    chunkEntity.wrapBuffer(imageBuffer, offset);
+                    apngIndex.readFctl(fctlIndex, (FctlChunkEntity) chunkEntity);
+                    fctlIndex = fctlIndex + 1;
+                    break;
+                case FDAT_TAG:
+                    chunkEntity.wrapBuffer(imageBuffer, offset);
+                    ((FdatChunkEntity) chunkEntity).setSequenceNumber(apngIndex.getFdatSequenceNumber(fdatIndex));
+                    fdatIndex = fdatIndex + 1;
+                    break;
+                default:
+                    chunkEntity.wrapBuffer(imageBuffer, offset);
+                    break;
+            }
+            if(measure) {
+                countChunk(chunkCounts, tag);
+            }
+            addChunkEntity(chunkEntity);
+        }
+        setUpFrameAssembler();
+        if(measure) {
+            // only the header chunks and the checksum ranges were read
+            metricsListener.onImageParsed(contentHash, Math.min(source.getLength(), 2L * ApngIndex.CHECKSUM_BYTES_LENGTH),
+                    chunkCounts, System.nanoTime() - startNanos);
+        }
+    }
+
+    /**
+     * Check the stored crc of the chunks the mode asks for, the parser reads no crc otherwise.
+     *
+     * @throws ApngFormatException for the first chunk whose crc does not match
+     */
+    public void verifyCrc(CrcVerifyMode crcVerifyMode) throws ApngFormatException {
+        for(int i = 0; i < chunkList.size(); i++) {
+            ChunkEntity chunkEntity = chunkList.get(i);
+            if(crcVerifyMode.isVerified(chunkEntity.getTag()) && !chunkEntity.isCrcValid()) {
+                throw new ApngFormatException("crc mismatch in chunk " + i + ": " + chunkEntity.getTag()
+                        + " at offset " + chunkEntity.getOffset());
+            }
+        }
+    }
+
+    /**
+     * Walk the chunk headers from the signature up to the first IDAT, an acTL has to come
+     * before it. Only chunk headers are read, the bytes of compressed data can not be taken
+     * for an acTL.
+     *
+     * @return offset of the acTL chunk, -1 when the buffer is not a png or a png which is
+     * not animated
+     */
+    public static int findActlOffset(ByteBuffer buffer) {
+        if(!startsWithSignature(buffer)) {
+            return -1;
+        }
+        int limit = buffer.limit();
+        int offset = PNG_TAG_BYTES.length;
+        while(offset <= limit - ChunkEntity.LENGTH_BYTES_LENGTH - ChunkEntity.TAG_BYTES_LENGTH) {
+            int length = buffer.getInt(offset);
+            int tag = buffer.getInt(offset + ChunkEntity.LENGTH_BYTES_LENGTH);
+            if(tag == ACTL_TAG_INT) {
+                return offset;
+            }
+            if(tag == IDAT_TAG_INT || tag == IEND_TAG_INT || length < 0) {
+                return -1;
+            }
+            long nextOffset = (long) offset + ChunkEntity.LENGTH_BYTES_LENGTH + ChunkEntity.TAG_BYTES_LENGTH
+                    + length + ChunkEntity.CRC_BYTES_LENGTH;
+            // a chunk running past the end, the image is truncated
+            if(nextOffset > limit) {
+                return -1;
+            }
+            offset = (int) nextOffset;
+        }
+        return -1;
+    }
+
+    /**
+     * Tell an apng from a plain png before reading the image: only the signature and the
+     * chunks before the image data are read, the data of these chunks is skipped. The stream
+     * is left after the chunk which decided and is not closed.
+     *
+     * @return false for a plain png or a stream which is not a png
+     */
+    public static boolean probe(InputStream inputStream) throws IOException {
+        DataInputStream dataInputStream = new DataInputStream(inputStream);
+        try {
+            byte[] signatureBytes = new byte[PNG_TAG_BYTES.length];
+            dataInputStream.readFully(signatureBytes);
+            if(!Arrays.equals(PNG_TAG_BYTES, signatureBytes)) {
+                return false;
+            }
+            while(true) {
+                long length = dataInputStream.readInt() & 0xFFFFFFFFL;
+                int tag = dataInputStream.readInt();
+                if(tag == ACTL_TAG_INT) {
+                    return true;
+                }
+                if(tag == IDAT_TAG_INT || tag == IEND_TAG_INT) {
+                    return false;
+                }
+                skipFully(dataInputStream, length + ChunkEntity.CRC_BYTES_LENGTH);
+            }
+        } catch (EOFException e) {
+            return false;
+        }
+    }
+
+    private static void skipFully(InputStream inputStream, long length) throws IOException {
+        while(length > 0) {
+            long skipped = inputStream.skip(length);
+            if(skipped <= 0) {
+                // skip may give up before the end, read tells the end apart
+                if(inputStream.read() == -1) {
+                    throw new EOFException();
+                }
+                skipped = 1;
+            }
+            length = length - skipped;
+        }
+    }
+
+    private static boolean startsWithSignature(ByteBuffer buffer) {
+        if(buffer.limit() < PNG_TAG_BYTES.length) {
+            return false;
+        }
+        for(int i = 0; i < PNG_TAG_BYTES.length; i++) {
+            if(buffer.get(i) != PNG_TAG_BYTES[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void countChunk(Map<String, Integer> chunkCounts, String tag) {
+        Integer count = chunkCounts.get(tag);
+        chunkCounts.put(tag, count == null ? 1 : count + 1);
+    }
+
+    private static ChunkEntity createChunkEntity(String tag) {
+        switch (tag) {
+            case ACTL_TAG:
+                return new ActlChunkEntity();
+            case IHDR_TAG:
+                return new IhdrChunkEntity();
+            case FCTL_TAG:
+                return new FctlChunkEntity();
+            case FDAT_TAG:
+                return new FdatChunkEntity();
+            default:
+                return new ChunkEntity();
+        }
+    }
+
+    private void addChunkEntity(ChunkEntity chunkEntity) throws ApngFormatException {
+        chunkList.add(chunkEntity);
+        switch (chunkEntity.getTag()) {
+            case IHDR_TAG:
+                ihdrChunkEntity = (IhdrChunkEntity) chunkEntity;
+                break;
+            case PLTE_TAG:
+                plteChunkEntity = chunkEntity;
+                break;
+            case ACTL_TAG:
+                actlChunkEntity = (ActlChunkEntity) chunkEntity;
+                if(frameTable.getFrameCount() == 0) {
+                    // the frame count is not trusted with the memory, only taken as a hint
+                    int frameCapacity = Math.max(0, Math.min(actlChunkEntity.getFrameCount(), MAX_FRAME_CAPACITY_HINT));
+                    frameTable = new FrameTable(frameCapacity);
+                    frameList = new FrameList(frameTable, chunkList);
+                }
+                break;
+            case FCTL_TAG:
+                checkFrameRegion(ihdrChunkEntity, (FctlChunkEntity) chunkEntity);
+                pendingFctlChunkEntity = (FctlChunkEntity) chunkEntity;
+                pendingFctlChunkIndex = chunkList.size() - 1;
+                unknowChunkList.add(chunkEntity);
+                break;
+            case IDAT_TAG:
+            case FDAT_TAG:
+                addFrameDataChunk(chunkEntity);
+                break;
+            case IEND_TAG:
+                iendChunkEntity = chunkEntity;
+                break;
+            default:
+                unknowChunkList.add(chunkEntity);
+                break;
+        }
+    }
+
+    /**
+     * The region of a frame has to be non empty and lie in the canvas, frame buffers are
+     * allocated from its size.
+     *
+     * @throws ApngFormatException when the fcTL comes before the ihdr or its region does not
+     * fit the canvas
+     */
+    static void checkFrameRegion(IhdrChunkEntity ihdrChunkEntity, FctlChunkEntity fctlChunkEntity) throws ApngFormatException {
+        if(ihdrChunkEntity == null) {
+            throw new ApngFormatException("fcTL before IHDR");
+        }
+        int width = fctlChunkEntity.getWidth();
+        int height = fctlChunkEntity.getHeight();
+        int xOffset = fctlChunkEntity.getxOffset();
+        int yOffset = fctlChunkEntity.getyOffset();
+        if(width <= 0 || height <= 0 || xOffset < 0 || yOffset < 0
+                || (long) xOffset + width > ihdrChunkEntity.getWidth()
+                || (long) yOffset + height > ihdrChunkEntity.getHeight()) {
+            throw new ApngFormatException("frame " + width + "x" + height + " at " + xOffset + "," + yOffset
+                    + " outside the canvas " + ihdrChunkEntity.getWidth() + "x" + ihdrChunkEntity.getHeight());
+        }
+    }
+
+    /**
+     * A frame starts at the first IDAT or fdAT after its fcTL and takes the following chunks
+     * of the same kind, encoders split large frames into several chunks.
+     */
+    private void addFrameDataChunk(ChunkEntity chunkEntity) {
+        int chunkIndex = chunkList.size() - 1;
+        if(pendingFctlChunkEntity != null) {
+            frameTable.add(pendingFctlChunkEntity.getOffset(), pendingFctlChunkIndex, pendingFctlChunkEntity,
+                    chunkIndex, chunkEntity);
+            pendingFctlChunkEntity = null;
+            lastFrameDataChunkEntity = chunkEntity;
+            return;
+        }
+        ChunkEntity previousChunkEntity = chunkList.get(chunkIndex - 1);
+        if(previousChunkEntity == lastFrameDataChunkEntity && previousChunkEntity.getTag().equals(chunkEntity.getTag())) {
+            frameTable.addDataSegment(chunkEntity);
+            lastFrameDataChunkEntity = chunkEntity;
+        }
+        // otherwise the default image, which is not part of the animation
+    }
+
+    private void setUpFrameAssembler() {
+        width = ihdrChunkEntity.getWidth();
+        height = ihdrChunkEntity.getHeight();
+        frameAssembler.setIhdrChunkEntity(ihdrChunkEntity);
+        frameAssembler.setPlteChunkEntity(plteChunkEntity);
+        frameAssembler.setUnknowChunkList(unknowChunkList);
+        frameAssembler.setIendChunkEntity(iendChunkEntity);
+    }
+
+    /**
+     * @return where every chunk of the image is, to be written next to the image and given to
+     * {@link #ApngParser(ApngSource, ApngIndex)} when it is opened again
+     */
+    public ApngIndex createIndex() {
+        int fctlCount = 0;
+        int fdatCount = 0;
+        for(ChunkEntity chunkEntity: chunkList) {
+            if(chunkEntity instanceof FctlChunkEntity) {
+                fctlCount = fctlCount + 1;
+            } else if(chunkEntity instanceof FdatChunkEntity) {
+                fdatCount = fdatCount + 1;
+            }
+        }
+        ApngIndex apngIndex = new ApngIndex(source.getLength(), ApngIndex.computeChecksum(source), contentHash, isApng,
+                chunkList.size(), fctlCount, fdatCount);
+        // chunks follow each other, ihdr points into its own copy and can not tell its offset
+        int offset = PNG_TAG_BYTES.length;
+        int chunkIndex = 0;
+        int fctlIndex = 0;
+        int fdatIndex = 0;
+        for(ChunkEntity chunkEntity: chunkList) {
+            apngIndex.setChunk(chunkIndex, offset, chunkEntity.getLength(), imageBuffer.getInt(offset + CHUNK_DATA_LENGTH_BYTES_LENGTH));
+            offset = offset + chunkEntity.getChunkLength();
+            chunkIndex = chunkIndex + 1;
+            if(chunkEntity instanceof FctlChunkEntity) {
+                apngIndex.setFctl(fctlIndex, (FctlChunkEntity) chunkEntity);
+                fctlIndex = fctlIndex + 1;
+            } else if(chunkEntity instanceof FdatChunkEntity) {
+                apngIndex.setFdatSequenceNumber(fdatIndex, ((FdatChunkEntity) chunkEntity).getSequenceNumber());
+                fdatIndex = fdatIndex + 1;
+            }
+        }
+        return apngIndex;
+    }
+
+    /**
+     * @return the frame region as a standalone png decoded by the frame decoder, see
+     * {@link FrameDecoder#decodeFrame(byte[], int, int, int, int)}
+     */
+    public <T> T generateFrameData(FrameEntity frameEntity, FrameDecoder<T> frameDecoder) {
+        byte[] imageBytes = frameAssembler.assemble(frameEntity);
+        FctlChunkEntity fctlChunkEntity = frameEntity.getFrameControlChunk();
+        boolean measure = metricsListener.isEnabled();
+        long startNanos = measure ? System.nanoTime() : 0;
+        T frameData = frameDecoder.decodeFrame(imageBytes, 0, imageBytes.length,
+                fctlChunkEntity.getWidth(), fctlChunkEntity.getHeight());
+        if(measure) {
+            // what the frame decoder allocates is not known here
+            metricsListener.onFrameDecoded(fctlChunkEntity, 0, System.nanoTime() - startNanos);
+        }
+        if(logger.isTraceEnabled()) {
+            logger.trace("generateFrameData colour type: " + ihdrChunkEntity.getColourType()
+                    + ", image bytes: " + ByteUtil.toHexPreview(ByteBuffer.wrap(imageBytes), 0, imageBytes.length, HEX_PREVIEW_BYTES_LENGTH)
+                    + ", is frame data: " + (frameData != null));
+        }
+        return frameData;
+    }
+
+    public ApngSource getSource() {
+        return source;
+    }
+
+    /**
+     * @return a decoder for the frames of this image, to be used by one thread at a time
+     * @throws ApngFormatException when the image is not animated, it has no frame to decode,
+     * see {@link #decodeImage(FrameDecoder)}
+     */
+    public PngDecoder createDecoder() throws ApngFormatException {
+        checkApng();
+        return frameAssembler.createDecoder();
+    }
+
+    /**
+     * Only the chunks of an animated image are read, a plain png leaves its header unset.
+     */
+    public void checkApng() throws ApngFormatException {
+        if(!isApng) {
+            throw new ApngFormatException("not an animated PNG");
+        }
+    }
+
+    /**
+     * @return the image bytes, copied out of the source unless it is a {@link ByteArraySource}
+     */
+    public byte[] getImageBytes() {
+        if(source instanceof ByteArraySource) {
+            return ((ByteArraySource) source).getBytes();
+        }
+        return ByteUtil.subBytes(imageBuffer, 0, source.getLength());
+    }
+
+    /**
+     * @return the default image, the first frame or the image of a png that is not animated
+     */
+    public <T> T decodeImage(FrameDecoder<T> frameDecoder) {
+        return frameDecoder.decodeImage(source.openStream());
+    }
+
+    public boolean isApng() {
+        return isApng;
+    }
+
+    public void setApng(boolean apng) {
+        isApng = apng;
+    }
+
+    /**
+     * @return canvas width of the animation
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * @return canvas height of the animation
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * @return a hash of the image length and the stored crc of every chunk, images with the same
+     * hash are treated as the same image by the {@link com.shark.androidapng.apng.cache.FrameCache}
+     */
+    public long getContentHash() {
+        return contentHash;
+    }
+
+    public ActlChunkEntity getActlChunkEntity() {
+        return actlChunkEntity;
+    }
+
+    public ApngFrameAssembler getFrameAssembler() {
+        return frameAssembler;
+    }
+
+    /**
+     * @return the frames of the image, read only, each built from the frame table when it is
+     * first asked for
+     */
+    public List<FrameEntity> getFrameList() {
+        return frameList;
+    }
+
+    /**
+     * @return the fcTL fields and chunk locations of every frame, in the order of the frame list
+     */
+    public FrameTable getFrameTable() {
+        return frameTable;
+    }
+}
@@ -0,0 +1,301 @@
+package com.shark.androidapng.apng;
+
+import com.shark.androidapng.apng.decoder.PngDecoder;
+import com.shark.androidapng.apng.entity.ActlChunkEntity;
+import com.shark.androidapng.apng.entity.ChunkEntity;
+import com.shark.androidapng.apng.entity.FctlChunkEntity;
+import com.shark.androidapng.apng.entity.FdatChunkEntity;
+import com.shark.androidapng.apng.entity.FrameEntity;
+import com.shark.androidapng.apng.entity.IhdrChunkEntity;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Pull parser reading one chunk at a time from a stream, so a frame can be shown as soon
+ * as its data arrived instead of after the whole file was read.
+ *
+ * <pre>
+ * int eventType = streamParser.next();
+ * while(eventType != ApngStreamParser.END_IMAGE) {
+ *     if(eventType == ApngStreamParser.FRAME) {
+ *         byte[] frameBytes = streamParser.getFrameAssembler().assemble(streamParser.getFrameEntity());
+ *     }
+ *     eventType = streamParser.next();
+ * }
+ * </pre>
+ *
+ * Only the chunks needed to rebuild a frame are kept, frame data is handed out and forgotten.
+ * A frame whose data is split over several IDAT or fdAT chunks is emitted once the chunk after
+ * the last one arrived, so {@link #FRAME} comes one chunk later than its data.
+ */
+public class ApngStreamParser implements Closeable {
+
+    public static final int START_IMAGE = 0;
+    /** ihdr was read, see {@link #getIhdrChunkEntity()} */
+    public static final int IHDR = 1;
+    /** actl was read, see {@link #getActlChunkEntity()} */
+    public static final int ACTL = 2;
+    /** fctl was read, see {@link #getFctlChunkEntity()} */
+    public static final int FCTL = 3;
+    /** the data of a frame was read, see {@link #getFrameEntity()} */
+    public static final int FRAME = 4;
+    /** any other chunk, see {@link #getChunkEntity()} */
+    public static final int CHUNK = 5;
+    public static final int END_IMAGE = 6;
+
+    private final ReadableByteChannel channel;
+    private final ByteBuffer headerBuffer = ByteBuffer.allocate(ChunkEntity.LENGTH_BYTES_LENGTH + ChunkEntity.TAG_BYTES_LENGTH);
+    private final byte[] tagBytes = new byte[ChunkEntity.TAG_BYTES_LENGTH];
+
+    private CrcVerifyMode crcVerifyMode = CrcVerifyMode.OFF;
+
+    private int eventType = START_IMAGE;
+    private ChunkEntity chunkEntity;
+    /** read ahead to find the end of the frame data, handed out by the next call */
+    private ChunkEntity pendingChunkEntity;
+    private IhdrChunkEntity ihdrChunkEntity;
+    private ActlChunkEntity actlChunkEntity;
+    private FctlChunkEntity fctlChunkEntity;
+    private FrameEntity frameEntity;
+    private int frameIndex = -1;
+
+    private final ApngFrameAssembler frameAssembler = new ApngFrameAssembler();
+
+    public ApngStreamParser(InputStream inputStream) {
+        this(Channels.newChannel(inputStream));
+    }
+
+    public ApngStreamParser(ReadableByteChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Read the next chunk, blocking until all of its bytes arrived.
+     *
+     * @return the new event type
+     */
+    public int next() throws IOException {
+        if(eventType == END_IMAGE) {
+            return eventType;
+        }
+        if(eventType == START_IMAGE) {
+            readSignature();
+        }
+        frameEntity = null;
+
+        chunkEntity = pendingChunkEntity;
+        pendingChunkEntity = null;
+        if(chunkEntity == null) {
+            chunkEntity = readChunk();
+        }
+        if(chunkEntity == null) {
+            eventType = END_IMAGE;
+            return eventType;
+        }
+        String tag = chunkEntity.getTag();
+
+        switch (tag) {
+            case ApngParser.IHDR_TAG:
+                ihdrChunkEntity = (IhdrChunkEntity) chunkEntity;
+                frameAssembler.setIhdrChunkEntity(ihdrChunkEntity);
+                eventType = IHDR;
+                break;
+            case ApngParser.ACTL_TAG:
+                actlChunkEntity = (ActlChunkEntity) chunkEntity;
+                eventType = ACTL;
+                break;
+            case ApngParser.FCTL_TAG:
+                ApngParser.checkFrameRegion(ihdrChunkEntity, (FctlChunkEntity) chunkEntity);
+                fctlChunkEntity = (FctlChunkEntity) chunkEntity;
+                eventType = FCTL;
+                break;
+            case ApngParser.IDAT_TAG:
+            case ApngParser.FDAT_TAG:
+                if(fctlChunkEntity == null) {
+                    // default image which is not part of the animation
+                    eventType = CHUNK;
+                    break;
+                }
+                frameEntity = new FrameEntity();
+                frameEntity.setFrameControlChunk(fctlChunkEntity);
+                frameEntity.setFrameDataChunk(chunkEntity);
+                fctlChunkEntity = null;
+                // the data may be split, the frame is complete at the first chunk of another kind
+                ChunkEntity nextChunkEntity = readChunk();
+                while(nextChunkEntity != null && tag.equals(nextChunkEntity.getTag())) {
+                    frameEntity.addFrameDataChunk(nextChunkEntity);
+                    nextChunkEntity = readChunk();
+                }
+                pendingChunkEntity = nextChunkEntity;
+                frameIndex = frameIndex + 1;
+                eventType = FRAME;
+                break;
+            case ApngParser.PLTE_TAG:
+                frameAssembler.setPlteChunkEntity(chunkEntity);
+                eventType = CHUNK;
+                break;
+            case ApngParser.IEND_TAG:
+                frameAssembler.setIendChunkEntity(chunkEntity);
+                eventType = END_IMAGE;
+                break;
+            default:
+                if(frameIndex == -1) {
+                    // ancillary chunks before the image data (tRNS, gAMA...) belong to every frame
+                    frameAssembler.getUnknowChunkList().add(chunkEntity);
+                }
+                eventType = CHUNK;
+                break;
+        }
+        return eventType;
+    }
+
+    /**
+     * @return the next chunk with all of its bytes, null when the stream ended
+     */
+    private ChunkEntity readChunk() throws IOException {
+        headerBuffer.clear();
+        if(!readFully(headerBuffer, true)) {
+            return null;
+        }
+        int length = headerBuffer.getInt(0);
+        // a chunk is read into one buffer, its size must not overflow
+        if(length < 0 || length > Integer.MAX_VALUE - ChunkEntity.LENGTH_BYTES_LENGTH
+                - ChunkEntity.TAG_BYTES_LENGTH - ChunkEntity.CRC_BYTES_LENGTH) {
+            throw new ApngFormatException("invalid chunk length: " + length);
+        }
+        headerBuffer.position(ChunkEntity.LENGTH_BYTES_LENGTH);
+        headerBuffer.get(tagBytes);
+        String tag = new String(tagBytes, StandardCharsets.UTF_8);
+
+        ChunkEntity chunkEntity;
+        switch (tag) {
+            case ApngParser.IHDR_TAG:
+                chunkEntity = new IhdrChunkEntity();
+                break;
+            case ApngParser.ACTL_TAG:
+                chunkEntity = new ActlChunkEntity();
+                break;
+            case ApngParser.FCTL_TAG:
+                chunkEntity = new FctlChunkEntity();
+                break;
+            case ApngParser.FDAT_TAG:
+                chunkEntity = new FdatChunkEntity();
+                break;
+            default:
+                chunkEntity = new ChunkEntity();
+                break;
+        }
+        chunkEntity.setLength(length);
+        chunkEntity.setTag(tag);
+        ByteBuffer chunkBuffer = ByteBuffer.allocate(chunkEntity.getChunkLength());
+        headerBuffer.rewind();
+        chunkBuffer.put(headerBuffer);
+        readFully(chunkBuffer, false);
+        chunkEntity.setBuffer(chunkBuffer, 0);
+        if(crcVerifyMode.isVerified(tag) && !chunkEntity.isCrcValid()) {
+            throw new ApngFormatException("crc mismatch in chunk " + tag);
+        }
+        return chunkEntity;
+    }
+
+    private void readSignature() throws IOException {
+        ByteBuffer signatureBuffer = ByteBuffer.allocate(ApngParser.PNG_TAG_BYTES.length);
+        if(!readFully(signatureBuffer, true)) {
+            throw new ApngFormatException("empty stream");
+        }
+        for(int i = 0; i < ApngParser.PNG_TAG_BYTES.length; i ++) {
+            if(signatureBuffer.get(i) != ApngParser.PNG_TAG_BYTES[i]) {
+                throw new ApngFormatException("not a png signature");
+            }
+        }
+    }
+
+    /**
+     * @return false when the stream ended before the first byte, only allowed at a chunk boundary
+     */
+    private boolean readFully(ByteBuffer buffer, boolean endAllowed) throws IOException {
+        boolean first = true;
+        while(buffer.hasRemaining()) {
+            int length = channel.read(buffer);
+            if(length == -1) {
+                if(first && endAllowed) {
+                    return false;
+                }
+                throw new EOFException("stream ended inside a chunk");
+            }
+            first = first && length == 0;
+        }
+        return true;
+    }
+
+    /**
+     * @param crcVerifyMode chunks whose crc is checked as they are read, null for
+     *                      {@link CrcVerifyMode#OFF}
+     */
+    public void setCrcVerifyMode(CrcVerifyMode crcVerifyMode) {
+        this.crcVerifyMode = crcVerifyMode != null ? crcVerifyMode : CrcVerifyMode.OFF;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    public int getEventType() {
+        return eventType;
+    }
+
+    /**
+     * @return the chunk read by the last {@link #next()}
+     */
+    public ChunkEntity getChunkEntity() {
+        return chunkEntity;
+    }
+
+    public IhdrChunkEntity getIhdrChunkEntity() {
+        return ihdrChunkEntity;
+    }
+
+    public ActlChunkEntity getActlChunkEntity() {
+        return actlChunkEntity;
+    }
+
+    /**
+     * @return the frame control waiting for its data, null once the frame was emitted
+     */
+    public FctlChunkEntity getFctlChunkEntity() {
+        return fctlChunkEntity;
+    }
+
+    /**
+     * @return the frame when the current event is {@link #FRAME}, null otherwise
+     */
+    public FrameEntity getFrameEntity() {
+        return frameEntity;
+    }
+
+    /**
+     * @return index of the last emitted frame, -1 before the first one
+     */
+    public int getFrameIndex() {
+        return frameIndex;
+    }
+
+    /**
+     * @return a decoder for the frames, available once the chunks before the first frame were read
+     */
+    public PngDecoder createDecoder() throws ApngFormatException {
+        return frameAssembler.createDecoder();
+    }
+
+    public ApngFrameAssembler getFrameAssembler() {
+        return frameAssembler;
+    }
+}
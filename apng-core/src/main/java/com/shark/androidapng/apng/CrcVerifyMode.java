@@ -0,0 +1,30 @@
+package com.shark.androidapng.apng;
+
+/**
+ * Which stored chunk crc are checked while parsing, see
+ * {@link ApngParser.Builder#setCrcVerifyMode(CrcVerifyMode)}. A chunk which does not match
+ * fails the parse with an {@link ApngFormatException} instead of a frame which can not be
+ * decoded later.
+ */
+public enum CrcVerifyMode {
+    /** nothing is checked, the default */
+    OFF,
+    /** every chunk but the IDAT and fdAT image data, a few bytes per frame */
+    HEADERS,
+    /** every chunk, the whole image is read */
+    FULL;
+
+    /**
+     * @param tag tag of the chunk
+     */
+    public boolean isVerified(String tag) {
+        switch (this) {
+            case FULL:
+                return true;
+            case HEADERS:
+                return !ApngParser.IDAT_TAG.equals(tag) && !ApngParser.FDAT_TAG.equals(tag);
+            default:
+                return false;
+        }
+    }
+}
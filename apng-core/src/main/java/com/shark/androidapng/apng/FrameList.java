@@ -0,0 +1,58 @@
+package com.shark.androidapng.apng;
+
+import com.shark.androidapng.apng.entity.ChunkEntity;
+import com.shark.androidapng.apng.entity.FctlChunkEntity;
+import com.shark.androidapng.apng.entity.FrameEntity;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * The frames of a parsed image backed by its {@link FrameTable}: a frame entity is built the
+ * first time its frame is asked for, from the chunks the parser holds anyway, then kept so its
+ * fdAT is only rewritten once. Frames never asked for cost their table row only.
+ */
+class FrameList extends AbstractList<FrameEntity> implements RandomAccess {
+
+    private final FrameTable frameTable;
+    private final List<ChunkEntity> chunkList;
+    private FrameEntity[] frameEntities = new FrameEntity[0];
+
+    /**
+     * @param chunkList every chunk of the image in image order, indexed by the table
+     */
+    FrameList(FrameTable frameTable, List<ChunkEntity> chunkList) {
+        this.frameTable = frameTable;
+        this.chunkList = chunkList;
+    }
+
+    @Override
+    public synchronized FrameEntity get(int index) {
+        int frameCount = frameTable.getFrameCount();
+        if(index < 0 || index >= frameCount) {
+            throw new IndexOutOfBoundsException("frame " + index + " of " + frameCount);
+        }
+        if(frameEntities.length < frameCount) {
+            frameEntities = Arrays.copyOf(frameEntities, frameCount);
+        }
+        FrameEntity frameEntity = frameEntities[index];
+        if(frameEntity == null) {
+            frameEntity = new FrameEntity();
+            frameEntity.setFrameControlChunk((FctlChunkEntity) chunkList.get(frameTable.getFctlChunkIndex(index)));
+            int dataChunkIndex = frameTable.getDataChunkIndex(index);
+            frameEntity.setFrameDataChunk(chunkList.get(dataChunkIndex));
+            for(int i = 1; i < frameTable.getDataSegmentCount(index); i++) {
+                frameEntity.addFrameDataChunk(chunkList.get(dataChunkIndex + i));
+            }
+            frameEntities[index] = frameEntity;
+        }
+        return frameEntity;
+    }
+
+    @Override
+    public int size() {
+        return frameTable.getFrameCount();
+    }
+}
@@ -0,0 +1,193 @@
+package com.shark.androidapng.apng;
+
+import com.shark.androidapng.apng.entity.ChunkEntity;
+import com.shark.androidapng.apng.entity.FctlChunkEntity;
+
+import java.util.Arrays;
+
+/**
+ * The fcTL fields and chunk locations of every frame in parallel primitive arrays, so walking
+ * the frames, e.g. to schedule them by their delays, touches a few arrays instead of two
+ * entities per frame. Any frame is read in constant time.
+ *
+ * The parser keeps no frame entity of its own, the frame list of {@link ApngParser} builds
+ * them from this table when they are asked for.
+ */
+public class FrameTable {
+
+    private int frameCount;
+
+    private int[] fctlOffsets;
+    private int[] fctlChunkIndexes;
+    private int[] dataChunkIndexes;
+    private int[] dataOffsets;
+    private int[] dataLengths;
+    private int[] dataSegmentCounts;
+    private int[] sequenceNumbers;
+    private int[] widths;
+    private int[] heights;
+    private int[] xOffsets;
+    private int[] yOffsets;
+    private short[] delayNumbers;
+    private short[] delayDens;
+    private byte[] disposeOps;
+    private byte[] blendOps;
+
+    /**
+     * @param capacity expected frame count, the table grows past it
+     */
+    public FrameTable(int capacity) {
+        allocate(Math.max(1, capacity));
+    }
+
+    private void allocate(int capacity) {
+        fctlOffsets = copyOf(fctlOffsets, capacity);
+        fctlChunkIndexes = copyOf(fctlChunkIndexes, capacity);
+        dataChunkIndexes = copyOf(dataChunkIndexes, capacity);
+        dataOffsets = copyOf(dataOffsets, capacity);
+        dataLengths = copyOf(dataLengths, capacity);
+        dataSegmentCounts = copyOf(dataSegmentCounts, capacity);
+        sequenceNumbers = copyOf(sequenceNumbers, capacity);
+        widths = copyOf(widths, capacity);
+        heights = copyOf(heights, capacity);
+        xOffsets = copyOf(xOffsets, capacity);
+        yOffsets = copyOf(yOffsets, capacity);
+        delayNumbers = delayNumbers == null ? new short[capacity] : Arrays.copyOf(delayNumbers, capacity);
+        delayDens = delayDens == null ? new short[capacity] : Arrays.copyOf(delayDens, capacity);
+        disposeOps = disposeOps == null ? new byte[capacity] : Arrays.copyOf(disposeOps, capacity);
+        blendOps = blendOps == null ? new byte[capacity] : Arrays.copyOf(blendOps, capacity);
+    }
+
+    private static int[] copyOf(int[] values, int capacity) {
+        return values == null ? new int[capacity] : Arrays.copyOf(values, capacity);
+    }
+
+    /**
+     * @param fctlOffset offset of the fcTL chunk in the image
+     * @param fctlChunkIndex index of the fcTL among the chunks of the image
+     * @param dataChunkIndex index of the first IDAT or fdAT among the chunks of the image, the
+     *                       segments added later follow it
+     * @param dataChunkEntity the first IDAT or fdAT of the frame, pointing into the image
+     */
+    public void add(int fctlOffset, int fctlChunkIndex, FctlChunkEntity fctlChunkEntity,
+                    int dataChunkIndex, ChunkEntity dataChunkEntity) {
+        if(frameCount == widths.length) {
+            allocate(frameCount * 2);
+        }
+        fctlOffsets[frameCount] = fctlOffset;
+        fctlChunkIndexes[frameCount] = fctlChunkIndex;
+        dataChunkIndexes[frameCount] = dataChunkIndex;
+        dataOffsets[frameCount] = dataChunkEntity.getOffset();
+        dataLengths[frameCount] = dataChunkEntity.getLength();
+        dataSegmentCounts[frameCount] = 1;
+        sequenceNumbers[frameCount] = fctlChunkEntity.getSequenceNumber();
+        widths[frameCount] = fctlChunkEntity.getWidth();
+        heights[frameCount] = fctlChunkEntity.getHeight();
+        xOffsets[frameCount] = fctlChunkEntity.getxOffset();
+        yOffsets[frameCount] = fctlChunkEntity.getyOffset();
+        delayNumbers[frameCount] = (short) fctlChunkEntity.getDelayNumber();
+        delayDens[frameCount] = (short) fctlChunkEntity.getDelayDen();
+        disposeOps[frameCount] = (byte) fctlChunkEntity.getDisposeOp();
+        blendOps[frameCount] = (byte) fctlChunkEntity.getBlendOp();
+        frameCount = frameCount + 1;
+    }
+
+    /**
+     * Add an IDAT or fdAT following the first one to the last frame.
+     */
+    public void addDataSegment(ChunkEntity dataChunkEntity) {
+        int frameIndex = checkIndex(frameCount - 1);
+        dataLengths[frameIndex] = dataLengths[frameIndex] + dataChunkEntity.getLength();
+        dataSegmentCounts[frameIndex] = dataSegmentCounts[frameIndex] + 1;
+    }
+
+    public int getFrameCount() {
+        return frameCount;
+    }
+
+    public int getFctlOffset(int frameIndex) {
+        return fctlOffsets[checkIndex(frameIndex)];
+    }
+
+    public int getFctlChunkIndex(int frameIndex) {
+        return fctlChunkIndexes[checkIndex(frameIndex)];
+    }
+
+    /**
+     * @return index of the first IDAT or fdAT among the chunks of the image, the other
+     * segments are the chunks right after it
+     */
+    public int getDataChunkIndex(int frameIndex) {
+        return dataChunkIndexes[checkIndex(frameIndex)];
+    }
+
+    /**
+     * @return offset of the first IDAT or fdAT chunk in the image
+     */
+    public int getDataOffset(int frameIndex) {
+        return dataOffsets[checkIndex(frameIndex)];
+    }
+
+    /**
+     * @return data length of the IDAT or fdAT chunks added up, fdAT sequence numbers included
+     */
+    public int getDataLength(int frameIndex) {
+        return dataLengths[checkIndex(frameIndex)];
+    }
+
+    /**
+     * @return number of IDAT or fdAT chunks the frame data is split into
+     */
+    public int getDataSegmentCount(int frameIndex) {
+        return dataSegmentCounts[checkIndex(frameIndex)];
+    }
+
+    public int getSequenceNumber(int frameIndex) {
+        return sequenceNumbers[checkIndex(frameIndex)];
+    }
+
+    public int getWidth(int frameIndex) {
+        return widths[checkIndex(frameIndex)];
+    }
+
+    public int getHeight(int frameIndex) {
+        return heights[checkIndex(frameIndex)];
+    }
+
+    public int getxOffset(int frameIndex) {
+        return xOffsets[checkIndex(frameIndex)];
+    }
+
+    public int getyOffset(int frameIndex) {
+        return yOffsets[checkIndex(frameIndex)];
+    }
+
+    /**
+     * @return the unsigned delay numerator
+     */
+    public int getDelayNumber(int frameIndex) {
+        return delayNumbers[checkIndex(frameIndex)] & 0xFFFF;
+    }
+
+    /**
+     * @return the unsigned delay denominator, 0 means 100
+     */
+    public int getDelayDen(int frameIndex) {
+        return delayDens[checkIndex(frameIndex)] & 0xFFFF;
+    }
+
+    public int getDisposeOp(int frameIndex) {
+        return disposeOps[checkIndex(frameIndex)];
+    }
+
+    public int getBlendOp(int frameIndex) {
+        return blendOps[checkIndex(frameIndex)];
+    }
+
+    private int checkIndex(int frameIndex) {
+        if(frameIndex < 0 || frameIndex >= frameCount) {
+            throw new IndexOutOfBoundsException("frame " + frameIndex + " of " + frameCount);
+        }
+        return frameIndex;
+    }
+}
@@ -0,0 +1,233 @@
+package com.shark.androidapng.apng.cache;
+
+import com.shark.androidapng.apng.entity.ActlChunkEntity;
+import com.shark.androidapng.apng.entity.IhdrChunkEntity;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Composited frames kept between loops of an animation, keyed by the content hash of the image
+ * and the frame index so players of the same image share them. Frames are evicted least
+ * recently used first once the byte budget is exceeded.
+ *
+ * An animation is either cached whole or not at all, see {@link #isCacheable(IhdrChunkEntity, ActlChunkEntity)}:
+ * caching only part of a long animation that loops evicts every frame before it is used again.
+ *
+ * Frames are kept in the pixel format of the player, int ARGB, short RGB_565 or byte palette
+ * indexes, see {@link com.shark.androidapng.apng.render.PixelFormat}, and counted at their
+ * size.
+ *
+ * The cache is shared by the whole process, see {@link #getInstance()}. Cached pixels must not
+ * be modified.
+ */
+public class FrameCache {
+
+    private static final long DEFAULT_MAX_BYTES = Runtime.getRuntime().maxMemory() / 16;
+
+    private static FrameCache instance;
+
+    private static class Key {
+        private final long contentHash;
+        private final int frameIndex;
+
+        private Key(long contentHash, int frameIndex) {
+            this.contentHash = contentHash;
+            this.frameIndex = frameIndex;
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            if(!(object instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) object;
+            return contentHash == key.contentHash && frameIndex == key.frameIndex;
+        }
+
+        @Override
+        public int hashCode() {
+            return (int) (contentHash ^ (contentHash >>> 32)) * 31 + frameIndex;
+        }
+    }
+
+    // access ordered: the eldest entry is the least recently used
+    private final LinkedHashMap<Key, Object> frameMap = new LinkedHashMap<>(16, 0.75f, true);
+    private long maxBytes;
+    private long maxAnimationBytes;
+    private long currentBytes;
+    private int hitCount;
+    private int missCount;
+    private int evictionCount;
+
+    public static synchronized FrameCache getInstance() {
+        if(instance == null) {
+            instance = new FrameCache(DEFAULT_MAX_BYTES);
+        }
+        return instance;
+    }
+
+    /**
+     * @param maxBytes budget of the whole cache, a single animation may use a quarter of it
+     */
+    public FrameCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+        this.maxAnimationBytes = maxBytes / 4;
+    }
+
+    /**
+     * @return whether every frame of the animation fits in the budget of one animation
+     */
+    public boolean isCacheable(IhdrChunkEntity ihdrChunkEntity, ActlChunkEntity actlChunkEntity) {
+        return isCacheable(ihdrChunkEntity.getWidth(), ihdrChunkEntity.getHeight(), actlChunkEntity.getFrameCount());
+    }
+
+    public boolean isCacheable(int width, int height, int frameCount) {
+        return isCacheable(width, height, frameCount, 4);
+    }
+
+    /**
+     * @param bytesPerPixel 4 for ARGB, 2 for RGB_565, 1 for indexes
+     */
+    public synchronized boolean isCacheable(int width, int height, int frameCount, int bytesPerPixel) {
+        return frameCount > 0 && getFrameBytes(width, height) * bytesPerPixel * frameCount <= maxAnimationBytes;
+    }
+
+    /**
+     * @return the ARGB canvas of the frame, null when it is not cached
+     */
+    public int[] get(long contentHash, int frameIndex) {
+        Object pixels = getPixels(contentHash, frameIndex);
+        return pixels instanceof int[] ? (int[]) pixels : null;
+    }
+
+    /**
+     * @return the RGB_565 canvas of the frame, null when it is not cached
+     */
+    public short[] getRgb565(long contentHash, int frameIndex) {
+        Object pixels = getPixels(contentHash, frameIndex);
+        return pixels instanceof short[] ? (short[]) pixels : null;
+    }
+
+    /**
+     * @return the palette indexes of the frame, null when it is not cached
+     */
+    public byte[] getIndexes(long contentHash, int frameIndex) {
+        Object pixels = getPixels(contentHash, frameIndex);
+        return pixels instanceof byte[] ? (byte[]) pixels : null;
+    }
+
+    /**
+     * @param pixels owned by the cache from now on
+     */
+    public void put(long contentHash, int frameIndex, int[] pixels) {
+        putPixels(contentHash, frameIndex, pixels);
+    }
+
+    public void put(long contentHash, int frameIndex, short[] rgb565Pixels) {
+        putPixels(contentHash, frameIndex, rgb565Pixels);
+    }
+
+    public void put(long contentHash, int frameIndex, byte[] indexes) {
+        putPixels(contentHash, frameIndex, indexes);
+    }
+
+    private synchronized Object getPixels(long contentHash, int frameIndex) {
+        Object pixels = frameMap.get(new Key(contentHash, frameIndex));
+        if(pixels == null) {
+            missCount = missCount + 1;
+        } else {
+            hitCount = hitCount + 1;
+        }
+        return pixels;
+    }
+
+    private synchronized void putPixels(long contentHash, int frameIndex, Object pixels) {
+        Object previousPixels = frameMap.put(new Key(contentHash, frameIndex), pixels);
+        if(previousPixels != null) {
+            currentBytes = currentBytes - getByteCount(previousPixels);
+        }
+        currentBytes = currentBytes + getByteCount(pixels);
+        trimToSize(maxBytes);
+    }
+
+    /**
+     * Drop every frame of one image.
+     */
+    public synchronized void remove(long contentHash) {
+        Iterator<Map.Entry<Key, Object>> iterator = frameMap.entrySet().iterator();
+        while(iterator.hasNext()) {
+            Map.Entry<Key, Object> entry = iterator.next();
+            if(entry.getKey().contentHash == contentHash) {
+                currentBytes = currentBytes - getByteCount(entry.getValue());
+                iterator.remove();
+            }
+        }
+    }
+
+    public synchronized void trimToSize(long maxBytes) {
+        Iterator<Object> iterator = frameMap.values().iterator();
+        while(currentBytes > maxBytes && iterator.hasNext()) {
+            currentBytes = currentBytes - getByteCount(iterator.next());
+            iterator.remove();
+            evictionCount = evictionCount + 1;
+        }
+    }
+
+    public synchronized void clear() {
+        frameMap.clear();
+        currentBytes = 0;
+    }
+
+    public synchronized long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public synchronized void setMaxBytes(long maxBytes) {
+        this.maxBytes = maxBytes;
+        trimToSize(maxBytes);
+    }
+
+    public synchronized long getMaxAnimationBytes() {
+        return maxAnimationBytes;
+    }
+
+    public synchronized void setMaxAnimationBytes(long maxAnimationBytes) {
+        this.maxAnimationBytes = maxAnimationBytes;
+    }
+
+    public synchronized long getCurrentBytes() {
+        return currentBytes;
+    }
+
+    public synchronized int getCount() {
+        return frameMap.size();
+    }
+
+    public synchronized int getHitCount() {
+        return hitCount;
+    }
+
+    public synchronized int getMissCount() {
+        return missCount;
+    }
+
+    public synchronized int getEvictionCount() {
+        return evictionCount;
+    }
+
+    private static long getFrameBytes(int width, int height) {
+        return (long) width * height;
+    }
+
+    private static long getByteCount(Object pixels) {
+        if(pixels instanceof short[]) {
+            return (long) ((short[]) pixels).length * 2;
+        }
+        if(pixels instanceof byte[]) {
+            return ((byte[]) pixels).length;
+        }
+        return (long) ((int[]) pixels).length * 4;
+    }
+}
@@ -0,0 +1,23 @@
+package com.shark.androidapng.apng.decoder;
+
+import java.io.InputStream;
+
+/**
+ * Decodes pngs into the image type of the platform, the parser has none of its own. The app
+ * decodes into pooled Bitmaps, a server side pipeline can decode into BufferedImages or use
+ * {@link PngDecoder} for plain ARGB pixels.
+ */
+public interface FrameDecoder<T> {
+
+    /**
+     * @return the image of a whole file, null when it can not be decoded
+     */
+    T decodeImage(InputStream inputStream);
+
+    /**
+     * @param width width of the frame region, lets the decoder reuse an image of that size
+     * @param height height of the frame region
+     * @return the image of the assembled frame png, null when it can not be decoded
+     */
+    T decodeFrame(byte[] imageBytes, int offset, int length, int width, int height);
+}
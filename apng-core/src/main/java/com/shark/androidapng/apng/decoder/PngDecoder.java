@@ -0,0 +1,535 @@
+package com.shark.androidapng.apng.decoder;
+
+import com.shark.androidapng.apng.ApngFormatException;
+import com.shark.androidapng.apng.ApngMetricsListener;
+import com.shark.androidapng.apng.entity.ChunkEntity;
+import com.shark.androidapng.apng.entity.FctlChunkEntity;
+import com.shark.androidapng.apng.entity.FdatChunkEntity;
+import com.shark.androidapng.apng.entity.FrameEntity;
+import com.shark.androidapng.apng.entity.IhdrChunkEntity;
+import com.shark.androidapng.util.ByteUtil;
+import com.shark.androidapng.util.SampleSizeUtil;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Decodes frame data straight into non premultiplied ARGB pixels: the IDAT / fdAT payload is
+ * inflated and unfiltered row by row, no png is rebuilt. Every colour type, bit depth and
+ * Adam7 interlacing is supported, 16 bit samples keep their high byte. Indexed images can also
+ * be decoded to their palette indexes, see {@link #decode(FrameEntity, int, byte[], int, int)}.
+ *
+ * Rows, inflater and input buffers are reused from frame to frame, so a decoder is not thread
+ * safe, use one per thread. Call {@link #release()} when done.
+ */
+public class PngDecoder {
+
+    public static final int COLOUR_TYPE_GRAY = 0;
+    public static final int COLOUR_TYPE_RGB = 2;
+    public static final int COLOUR_TYPE_INDEXED = 3;
+    public static final int COLOUR_TYPE_GRAY_ALPHA = 4;
+    public static final int COLOUR_TYPE_RGBA = 6;
+
+    private static final int FILTER_NONE = 0;
+    private static final int FILTER_SUB = 1;
+    private static final int FILTER_UP = 2;
+    private static final int FILTER_AVERAGE = 3;
+    private static final int FILTER_PAETH = 4;
+
+    /** x start, y start, x step, y step of the seven Adam7 passes */
+    private static final int[][] ADAM7_PASSES = new int[][]{
+            {0, 0, 8, 8}, {4, 0, 8, 8}, {0, 4, 4, 8}, {2, 0, 4, 4}, {0, 2, 2, 4}, {1, 0, 2, 2}, {0, 1, 1, 2}};
+
+    private static final int INPUT_BYTES_LENGTH = 8 * 1024;
+
+    private final int bitDepth;
+    private final int colourType;
+    private final boolean interlaced;
+    private final int bitsPerPixel;
+    private final int bytesPerPixel;
+    private final int sampleMask;
+
+    private final int[] palette;
+    private final boolean hasTransparentColour;
+    private int transparentRed;
+    private int transparentGreen;
+    private int transparentBlue;
+
+    private final Inflater inflater = new Inflater();
+    private final byte[] inputBytes = new byte[INPUT_BYTES_LENGTH];
+    private byte[] currentRow = new byte[0];
+    private byte[] previousRow = new byte[0];
+
+    private ApngMetricsListener metricsListener = ApngMetricsListener.NO_OP;
+    private int sampleSize = 1;
+    private int firstColumn;
+    private int firstRow;
+    private int allocatedBytes;
+
+    private List<ChunkEntity> dataChunkList;
+    private int dataChunkIndex;
+    private ChunkEntity dataChunk;
+    private int inputOffset;
+    private int inputEndOffset;
+
+    /**
+     * The combinations of the png specification, rows and samples are sized from them.
+     */
+    private static boolean isBitDepthAllowed(int colourType, int bitDepth) {
+        switch (colourType) {
+            case COLOUR_TYPE_GRAY:
+                return bitDepth == 1 || bitDepth == 2 || bitDepth == 4 || bitDepth == 8 || bitDepth == 16;
+            case COLOUR_TYPE_INDEXED:
+                return bitDepth == 1 || bitDepth == 2 || bitDepth == 4 || bitDepth == 8;
+            default:
+                return bitDepth == 8 || bitDepth == 16;
+        }
+    }
+
+    /**
+     * @param plteChunkEntity null unless the image has a palette
+     * @param trnsChunkEntity null unless the image has transparency information
+     */
+    public PngDecoder(IhdrChunkEntity ihdrChunkEntity, ChunkEntity plteChunkEntity, ChunkEntity trnsChunkEntity) throws ApngFormatException {
+        bitDepth = ihdrChunkEntity.getBitDepth();
+        colourType = ihdrChunkEntity.getColourType();
+        interlaced = ihdrChunkEntity.getInterfaceMethod() == 1;
+        int channels;
+        switch (colourType) {
+            case COLOUR_TYPE_GRAY:
+            case COLOUR_TYPE_INDEXED:
+                channels = 1;
+                break;
+            case COLOUR_TYPE_RGB:
+                channels = 3;
+                break;
+            case COLOUR_TYPE_GRAY_ALPHA:
+                channels = 2;
+                break;
+            case COLOUR_TYPE_RGBA:
+                channels = 4;
+                break;
+            default:
+                throw new ApngFormatException("unknown colour type: " + colourType);
+        }
+        if(!isBitDepthAllowed(colourType, bitDepth)) {
+            throw new ApngFormatException("bit depth " + bitDepth + " not allowed for colour type " + colourType);
+        }
+        bitsPerPixel = channels * bitDepth;
+        bytesPerPixel = Math.max(1, bitsPerPixel / 8);
+        sampleMask = bitDepth >= 8 ? 0xFF : (1 << bitDepth) - 1;
+
+        byte[] trnsBytes = trnsChunkEntity != null ? trnsChunkEntity.getDataBytes() : null;
+        if(colourType == COLOUR_TYPE_INDEXED) {
+            if(plteChunkEntity == null) {
+                throw new ApngFormatException("indexed image without palette");
+            }
+            byte[] plteBytes = plteChunkEntity.getDataBytes();
+            palette = new int[1 << bitDepth];
+            for(int i = 0; i < palette.length; i ++) {
+                palette[i] = 0xFF000000;
+            }
+            for(int i = 0; i < Math.min(palette.length, plteBytes.length / 3); i ++) {
+                int alpha = trnsBytes != null && i < trnsBytes.length ? trnsBytes[i] & 0xFF : 0xFF;
+                palette[i] = alpha << 24 | (plteBytes[i * 3] & 0xFF) << 16
+                        | (plteBytes[i * 3 + 1] & 0xFF) << 8 | (plteBytes[i * 3 + 2] & 0xFF);
+            }
+            hasTransparentColour = false;
+        } else {
+            palette = null;
+            if(colourType == COLOUR_TYPE_GRAY && trnsBytes != null && trnsBytes.length >= 2) {
+                transparentRed = readSample(trnsBytes, 0);
+                hasTransparentColour = true;
+            } else if(colourType == COLOUR_TYPE_RGB && trnsBytes != null && trnsBytes.length >= 6) {
+                transparentRed = readSample(trnsBytes, 0);
+                transparentGreen = readSample(trnsBytes, 2);
+                transparentBlue = readSample(trnsBytes, 4);
+                hasTransparentColour = true;
+            } else {
+                hasTransparentColour = false;
+            }
+        }
+    }
+
+    /**
+     * Decode the frame region, fcTL width by fcTL height.
+     *
+     * @param pixels receives the pixels, offset + height * stride at least
+     * @param offset index of the first pixel in pixels
+     * @param stride pixels between two rows in pixels
+     */
+    public void decode(FrameEntity frameEntity, int[] pixels, int offset, int stride) throws ApngFormatException {
+        decode(frameEntity, 1, pixels, offset, stride);
+    }
+
+    /**
+     * Decode the frame region keeping the pixels of a canvas subsampled by the sample size, see
+     * {@link SampleSizeUtil}. Every row is still inflated and unfiltered, only the kept pixels
+     * are converted and written.
+     *
+     * @param sampleSize a power of two, 1 for every pixel
+     * @param pixels receives {@link SampleSizeUtil#scaleLength(int, int, int)} of the fcTL
+     *               x offset and width by the same of the y offset and height pixels
+     */
+    public void decode(FrameEntity frameEntity, int sampleSize, int[] pixels, int offset, int stride) throws ApngFormatException {
+        SampleSizeUtil.checkSampleSize(sampleSize);
+        FctlChunkEntity fctlChunkEntity = frameEntity.getFrameControlChunk();
+        this.sampleSize = sampleSize;
+        firstColumn = SampleSizeUtil.firstKept(fctlChunkEntity.getxOffset(), sampleSize);
+        firstRow = SampleSizeUtil.firstKept(fctlChunkEntity.getyOffset(), sampleSize);
+        decode(frameEntity.getRawFrameDataChunkList(), fctlChunkEntity.getWidth(), fctlChunkEntity.getHeight(),
+                pixels, null, offset, stride, fctlChunkEntity);
+    }
+
+    /**
+     * Decode the palette indexes of an indexed image instead of its pixels, one byte per pixel,
+     * see {@link #getPalette()}.
+     *
+     * @param indexes receives the indexes like the pixels of {@link #decode(FrameEntity, int, int[], int, int)}
+     */
+    public void decode(FrameEntity frameEntity, int sampleSize, byte[] indexes, int offset, int stride) throws ApngFormatException {
+        if(colourType != COLOUR_TYPE_INDEXED) {
+            throw new IllegalStateException("not an indexed image, colour type: " + colourType);
+        }
+        SampleSizeUtil.checkSampleSize(sampleSize);
+        FctlChunkEntity fctlChunkEntity = frameEntity.getFrameControlChunk();
+        this.sampleSize = sampleSize;
+        firstColumn = SampleSizeUtil.firstKept(fctlChunkEntity.getxOffset(), sampleSize);
+        firstRow = SampleSizeUtil.firstKept(fctlChunkEntity.getyOffset(), sampleSize);
+        decode(frameEntity.getRawFrameDataChunkList(), fctlChunkEntity.getWidth(), fctlChunkEntity.getHeight(),
+                null, indexes, offset, stride, fctlChunkEntity);
+    }
+
+    /**
+     * @param dataChunk an IDAT or fdAT chunk, the fdAT sequence number is skipped
+     */
+    public void decode(ChunkEntity dataChunk, int width, int height, int[] pixels, int offset, int stride) throws ApngFormatException {
+        decode(Collections.singletonList(dataChunk), width, height, pixels, offset, stride);
+    }
+
+    /**
+     * @param dataChunkList the IDAT or fdAT chunks of one image, inflated one after the other
+     */
+    public void decode(List<ChunkEntity> dataChunkList, int width, int height, int[] pixels, int offset, int stride) throws ApngFormatException {
+        sampleSize = 1;
+        firstColumn = 0;
+        firstRow = 0;
+        decode(dataChunkList, width, height, pixels, null, offset, stride, null);
+    }
+
+    /**
+     * @param pixels null when decoding indexes
+     */
+    private void decode(List<ChunkEntity> dataChunkList, int width, int height, int[] pixels, byte[] indexes,
+                        int offset, int stride, FctlChunkEntity fctlChunkEntity) throws ApngFormatException {
+        if(dataChunkList.isEmpty()) {
+            throw new ApngFormatException("no image data");
+        }
+        boolean measure = metricsListener.isEnabled();
+        long startNanos = measure ? System.nanoTime() : 0;
+        allocatedBytes = 0;
+        decodeImage(dataChunkList, width, height, pixels, indexes, offset, stride);
+        if(measure) {
+            metricsListener.onFrameDecoded(fctlChunkEntity, allocatedBytes, System.nanoTime() - startNanos);
+        }
+    }
+
+    private void decodeImage(List<ChunkEntity> dataChunkList, int width, int height, int[] pixels, byte[] indexes,
+                             int offset, int stride) throws ApngFormatException {
+        this.dataChunkList = dataChunkList;
+        selectDataChunk(0);
+        inflater.reset();
+        try {
+            if(!interlaced) {
+                decodePass(width, height, 0, 0, 1, 1, pixels, indexes, offset, stride);
+                return;
+            }
+            for(int[] pass: ADAM7_PASSES) {
+                int passWidth = (width - pass[0] + pass[2] - 1) / pass[2];
+                int passHeight = (height - pass[1] + pass[3] - 1) / pass[3];
+                decodePass(passWidth, passHeight, pass[0], pass[1], pass[2], pass[3], pixels, indexes, offset, stride);
+            }
+        } catch (DataFormatException e) {
+            throw new ApngFormatException("corrupt image data: " + e.getMessage());
+        } finally {
+            this.dataChunkList = null;
+            this.dataChunk = null;
+        }
+    }
+
+    private void decodePass(int passWidth, int passHeight, int xStart, int yStart, int xStep, int yStep,
+                            int[] pixels, byte[] indexes, int offset, int stride) throws DataFormatException, ApngFormatException {
+        if(passWidth <= 0 || passHeight <= 0) {
+            return;
+        }
+        int rowBytesLength = (passWidth * bitsPerPixel + 7) / 8 + 1;
+        if(currentRow.length < rowBytesLength) {
+            currentRow = new byte[rowBytesLength];
+            previousRow = new byte[rowBytesLength];
+            allocatedBytes = allocatedBytes + rowBytesLength * 2;
+        }
+        for(int i = 0; i < rowBytesLength; i ++) {
+            previousRow[i] = 0;
+        }
+        // the first pass column kept, then every column skip one
+        int sampleSizeMask = sampleSize - 1;
+        int passColumn = 0;
+        while(passColumn < passWidth && (xStart + passColumn * xStep < firstColumn
+                || ((xStart + passColumn * xStep - firstColumn) & sampleSizeMask) != 0)) {
+            passColumn = passColumn + 1;
+        }
+        int columnSkip = Math.max(1, sampleSize / xStep);
+        int columnStep = Math.max(1, xStep / sampleSize);
+        int sampledColumn = (xStart + passColumn * xStep - firstColumn) / sampleSize;
+        for(int row = 0; row < passHeight; row ++) {
+            inflateFully(currentRow, rowBytesLength);
+            unfilter(currentRow, previousRow, rowBytesLength);
+            int y = yStart + row * yStep - firstRow;
+            if(y >= 0 && (y & sampleSizeMask) == 0) {
+                int pixelIndex = offset + y / sampleSize * stride + sampledColumn;
+                if(indexes != null) {
+                    writeIndexes(currentRow, passColumn, passWidth, columnSkip, indexes, pixelIndex, columnStep);
+                } else {
+                    writePixels(currentRow, passColumn, passWidth, columnSkip, pixels, pixelIndex, columnStep);
+                }
+            }
+            byte[] swapRow = previousRow;
+            previousRow = currentRow;
+            currentRow = swapRow;
+        }
+    }
+
+    private void inflateFully(byte[] bytes, int length) throws DataFormatException, ApngFormatException {
+        int inflatedLength = 0;
+        while(inflatedLength < length) {
+            int count = inflater.inflate(bytes, inflatedLength, length - inflatedLength);
+            if(count == 0) {
+                if(inflater.finished() || inflater.needsDictionary()) {
+                    throw new ApngFormatException("image data ended early");
+                }
+                if(inflater.needsInput() && !feedInput()) {
+                    throw new ApngFormatException("image data ended early");
+                }
+            }
+            inflatedLength = inflatedLength + count;
+        }
+    }
+
+    /**
+     * The chunk buffer may be read-only or mapped, so its bytes go through one reused array.
+     */
+    private boolean feedInput() {
+        while(inputOffset >= inputEndOffset) {
+            if(dataChunkIndex + 1 >= dataChunkList.size()) {
+                return false;
+            }
+            selectDataChunk(dataChunkIndex + 1);
+        }
+        int length = Math.min(inputBytes.length, inputEndOffset - inputOffset);
+        ByteUtil.copyBytes(dataChunk.getBuffer(), inputOffset, inputBytes, 0, length);
+        inputOffset = inputOffset + length;
+        inflater.setInput(inputBytes, 0, length);
+        return true;
+    }
+
+    private void selectDataChunk(int dataChunkIndex) {
+        this.dataChunkIndex = dataChunkIndex;
+        dataChunk = dataChunkList.get(dataChunkIndex);
+        inputOffset = dataChunk.getDataOffset();
+        if(dataChunk instanceof FdatChunkEntity) {
+            inputOffset = inputOffset + FdatChunkEntity.SEQUENCE_NUMBER_BYTES_LENGTH;
+        }
+        inputEndOffset = dataChunk.getCrcOffset();
+    }
+
+    private void unfilter(byte[] row, byte[] previousRow, int length) throws ApngFormatException {
+        int filter = row[0];
+        switch (filter) {
+            case FILTER_NONE:
+                break;
+            case FILTER_SUB:
+                for(int i = 1 + bytesPerPixel; i < length; i ++) {
+                    row[i] = (byte) (row[i] + row[i - bytesPerPixel]);
+                }
+                break;
+            case FILTER_UP:
+                for(int i = 1; i < length; i ++) {
+                    row[i] = (byte) (row[i] + previousRow[i]);
+                }
+                break;
+            case FILTER_AVERAGE:
+                for(int i = 1; i < length; i ++) {
+                    int left = i > bytesPerPixel ? row[i - bytesPerPixel] & 0xFF : 0;
+                    row[i] = (byte) (row[i] + ((left + (previousRow[i] & 0xFF)) >> 1));
+                }
+                break;
+            case FILTER_PAETH:
+                for(int i = 1; i < length; i ++) {
+                    int left = i > bytesPerPixel ? row[i - bytesPerPixel] & 0xFF : 0;
+                    int up = previousRow[i] & 0xFF;
+                    int upLeft = i > bytesPerPixel ? previousRow[i - bytesPerPixel] & 0xFF : 0;
+                    row[i] = (byte) (row[i] + paeth(left, up, upLeft));
+                }
+                break;
+            default:
+                throw new ApngFormatException("unknown filter type: " + filter);
+        }
+    }
+
+    private static int paeth(int left, int up, int upLeft) {
+        int estimate = left + up - upLeft;
+        int leftDistance = Math.abs(estimate - left);
+        int upDistance = Math.abs(estimate - up);
+        int upLeftDistance = Math.abs(estimate - upLeft);
+        if(leftDistance <= upDistance && leftDistance <= upLeftDistance) {
+            return left;
+        }
+        return upDistance <= upLeftDistance ? up : upLeft;
+    }
+
+    /**
+     * @param row filter type byte followed by the unfiltered samples
+     * @param firstX first sample written
+     * @param endX samples in the row
+     * @param skip samples from one written to the next
+     * @param step pixels from one written to the next
+     */
+    private void writePixels(byte[] row, int firstX, int endX, int skip, int[] pixels, int pixelIndex, int step) {
+        switch (colourType) {
+            case COLOUR_TYPE_GRAY:
+                for(int x = firstX; x < endX; x += skip, pixelIndex += step) {
+                    int sample = bitDepth == 16 ? readSample(row, 1 + x * 2) : readPackedSample(row, x);
+                    int gray = bitDepth == 16 ? sample >> 8 : sample * 0xFF / sampleMask;
+                    int alpha = hasTransparentColour && sample == transparentRed ? 0 : 0xFF;
+                    pixels[pixelIndex] = alpha << 24 | gray << 16 | gray << 8 | gray;
+                }
+                break;
+            case COLOUR_TYPE_RGB:
+                for(int x = firstX; x < endX; x += skip, pixelIndex += step) {
+                    int red;
+                    int green;
+                    int blue;
+                    int alpha = 0xFF;
+                    if(bitDepth == 16) {
+                        red = readSample(row, 1 + x * 6);
+                        green = readSample(row, 3 + x * 6);
+                        blue = readSample(row, 5 + x * 6);
+                        if(hasTransparentColour && red == transparentRed && green == transparentGreen && blue == transparentBlue) {
+                            alpha = 0;
+                        }
+                        red = red >> 8;
+                        green = green >> 8;
+                        blue = blue >> 8;
+                    } else {
+                        red = row[1 + x * 3] & 0xFF;
+                        green = row[2 + x * 3] & 0xFF;
+                        blue = row[3 + x * 3] & 0xFF;
+                        if(hasTransparentColour && red == transparentRed && green == transparentGreen && blue == transparentBlue) {
+                            alpha = 0;
+                        }
+                    }
+                    pixels[pixelIndex] = alpha << 24 | red << 16 | green << 8 | blue;
+                }
+                break;
+            case COLOUR_TYPE_INDEXED:
+                for(int x = firstX; x < endX; x += skip, pixelIndex += step) {
+                    pixels[pixelIndex] = palette[readPackedSample(row, x)];
+                }
+                break;
+            case COLOUR_TYPE_GRAY_ALPHA:
+                for(int x = firstX; x < endX; x += skip, pixelIndex += step) {
+                    int index = bitDepth == 16 ? 1 + x * 4 : 1 + x * 2;
+                    int gray = row[index] & 0xFF;
+                    int alpha = row[bitDepth == 16 ? index + 2 : index + 1] & 0xFF;
+                    pixels[pixelIndex] = alpha << 24 | gray << 16 | gray << 8 | gray;
+                }
+                break;
+            default:
+                for(int x = firstX; x < endX; x += skip, pixelIndex += step) {
+                    int index = bitDepth == 16 ? 1 + x * 8 : 1 + x * 4;
+                    int sampleLength = bitDepth == 16 ? 2 : 1;
+                    int red = row[index] & 0xFF;
+                    int green = row[index + sampleLength] & 0xFF;
+                    int blue = row[index + sampleLength * 2] & 0xFF;
+                    int alpha = row[index + sampleLength * 3] & 0xFF;
+                    pixels[pixelIndex] = alpha << 24 | red << 16 | green << 8 | blue;
+                }
+                break;
+        }
+    }
+
+    /**
+     * Like {@link #writePixels(byte[], int, int, int, int[], int, int)} with the palette indexes.
+     */
+    private void writeIndexes(byte[] row, int firstX, int endX, int skip, byte[] indexes, int indexIndex, int step) {
+        if(bitDepth == 8 && skip == 1 && step == 1) {
+            System.arraycopy(row, 1 + firstX, indexes, indexIndex, endX - firstX);
+            return;
+        }
+        for(int x = firstX; x < endX; x += skip, indexIndex += step) {
+            indexes[indexIndex] = (byte) readPackedSample(row, x);
+        }
+    }
+
+    /**
+     * @return sample x of a row packing one channel of at most 8 bits per pixel
+     */
+    private int readPackedSample(byte[] row, int x) {
+        if(bitDepth == 8) {
+            return row[1 + x] & 0xFF;
+        }
+        int bitIndex = x * bitDepth;
+        int shift = 8 - bitDepth - (bitIndex & 7);
+        return (row[1 + (bitIndex >> 3)] >> shift) & sampleMask;
+    }
+
+    private static int readSample(byte[] bytes, int index) {
+        return (bytes[index] & 0xFF) << 8 | (bytes[index + 1] & 0xFF);
+    }
+
+    public boolean isIndexed() {
+        return colourType == COLOUR_TYPE_INDEXED;
+    }
+
+    /**
+     * @return a copy of the ARGB colour of every index, 2 ^ bit depth entries, null unless the
+     * image is indexed
+     */
+    public int[] getPalette() {
+        return palette != null ? palette.clone() : null;
+    }
+
+    /**
+     * @return whether every pixel decoded is opaque, false when alpha has to be decoded to
+     * tell
+     */
+    public boolean isOpaque() {
+        switch (colourType) {
+            case COLOUR_TYPE_GRAY:
+            case COLOUR_TYPE_RGB:
+                return !hasTransparentColour;
+            case COLOUR_TYPE_INDEXED:
+                for(int colour: palette) {
+                    if(colour >>> 24 != 0xFF) {
+                        return false;
+                    }
+                }
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * @param metricsListener told about every decoded frame, null for none
+     */
+    public void setMetricsListener(ApngMetricsListener metricsListener) {
+        this.metricsListener = metricsListener != null ? metricsListener : ApngMetricsListener.NO_OP;
+    }
+
+    public void release() {
+        inflater.end();
+    }
+}
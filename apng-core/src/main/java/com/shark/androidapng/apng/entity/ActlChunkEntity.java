@@ -1,6 +1,6 @@
 package com.shark.androidapng.apng.entity;
 
-import com.shark.androidapng.util.ByteUtil;
+import java.nio.ByteBuffer;
 
 /**
  * Created by Shark0 on 2016/9/22.
@@ -10,14 +10,11 @@ public class ActlChunkEntity extends ChunkEntity {
     private int frameCount;
     private int playCount;
 
-    public void setDataBytes(byte[] dataBytes) {
-        byte[] frameCountBytes = ByteUtil.subBytes(dataBytes, 0, 4);
-        frameCount = ByteUtil.bytesToInt(frameCountBytes);
-
-        byte[] playCountBytes = ByteUtil.subBytes(dataBytes, 4, 8);
-        playCount = ByteUtil.bytesToInt(playCountBytes);
-
-        super.setDataBytes(dataBytes);
+    @Override
+    public void setBuffer(ByteBuffer buffer, int offset) {
+        super.setBuffer(buffer, offset);
+        frameCount = buffer.getInt(getDataOffset());
+        playCount = buffer.getInt(getDataOffset() + 4);
     }
 
     public int getFrameCount() {
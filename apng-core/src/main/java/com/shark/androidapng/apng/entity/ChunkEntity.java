@@ -0,0 +1,123 @@
+package com.shark.androidapng.apng.entity;
+
+import com.shark.androidapng.util.ByteUtil;
+import com.shark.androidapng.util.CrcUtil;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Created by Shark0 on 2016/9/19.
+ *
+ * A chunk is only an index into the image buffer: the offset of its length field and the
+ * data length. Bytes are copied out of the buffer only when they are asked for.
+ */
+public class ChunkEntity {
+
+    public static final int LENGTH_BYTES_LENGTH = 4;
+
+    public static final int TAG_BYTES_LENGTH = 4;
+
+    public static final int CRC_BYTES_LENGTH = 4;
+
+    private ByteBuffer buffer;
+
+    private int offset;
+
+    private int length;
+
+    private String tag;
+
+    public ByteBuffer getBuffer() {
+        return buffer;
+    }
+
+    public void setBuffer(ByteBuffer buffer, int offset) {
+        wrapBuffer(buffer, offset);
+    }
+
+    /**
+     * Point into the buffer without reading any field of the chunk, for fields already known
+     * e.g. from an index. Subclasses read their fields in {@link #setBuffer(ByteBuffer, int)}.
+     */
+    public final void wrapBuffer(ByteBuffer buffer, int offset) {
+        this.buffer = buffer;
+        this.offset = offset;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public int getTagOffset() {
+        return offset + LENGTH_BYTES_LENGTH;
+    }
+
+    public int getDataOffset() {
+        return offset + LENGTH_BYTES_LENGTH + TAG_BYTES_LENGTH;
+    }
+
+    public int getCrcOffset() {
+        return getDataOffset() + length;
+    }
+
+    /**
+     * @return size of the whole chunk: length, tag, data and crc
+     */
+    public int getChunkLength() {
+        return LENGTH_BYTES_LENGTH + TAG_BYTES_LENGTH + length + CRC_BYTES_LENGTH;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    public void setLength(int length) {
+        this.length = length;
+    }
+
+    public String getTag() {
+        return tag;
+    }
+
+    public void setTag(String tag) {
+        this.tag = tag;
+    }
+
+    public byte[] getLengthBytes() {
+        return ByteUtil.subBytes(buffer, offset, getTagOffset());
+    }
+
+    public byte[] getTagBytes() {
+        return ByteUtil.subBytes(buffer, getTagOffset(), getDataOffset());
+    }
+
+    public byte[] getDataBytes() {
+        return ByteUtil.subBytes(buffer, getDataOffset(), getCrcOffset());
+    }
+
+    public byte[] getCrcBytes() {
+        return ByteUtil.subBytes(buffer, getCrcOffset(), getCrcOffset() + CRC_BYTES_LENGTH);
+    }
+
+    /**
+     * @return the crc as stored in the image, it is not checked
+     */
+    public int getCrc() {
+        return buffer.getInt(getCrcOffset());
+    }
+
+    /**
+     * @return the crc of the tag and data, read in place
+     */
+    public int computeCrc() {
+        return CrcUtil.crc(buffer, getTagOffset(), TAG_BYTES_LENGTH + length);
+    }
+
+    public boolean isCrcValid() {
+        return computeCrc() == getCrc();
+    }
+
+    public void writeTo(byte[] bytes, int startIndex) {
+        ByteUtil.copyBytes(buffer, offset, bytes, startIndex, getChunkLength());
+    }
+}
@@ -0,0 +1,121 @@
+package com.shark.androidapng.apng.entity;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Created by Shark0 on 2016/9/21.
+ */
+public class FctlChunkEntity extends ChunkEntity{
+
+    /** leave the canvas as it is */
+    public static final int DISPOSE_OP_NONE = 0;
+    /** clear the frame region to fully transparent black */
+    public static final int DISPOSE_OP_BACKGROUND = 1;
+    /** restore the frame region to what it was before the frame */
+    public static final int DISPOSE_OP_PREVIOUS = 2;
+
+    /** replace the frame region, alpha included */
+    public static final int BLEND_OP_SOURCE = 0;
+    /** alpha composite the frame over the canvas */
+    public static final int BLEND_OP_OVER = 1;
+
+    private int sequenceNumber;
+    private int width;
+    private int height;
+    private int xOffset;
+    private int yOffset;
+    private int delayNumber;
+    private int delayDen;
+    private int disposeOp;
+    private int blendOp;
+
+    /**
+     * Fields are read at their offsets in the buffer, nothing is copied.
+     */
+    @Override
+    public void setBuffer(ByteBuffer buffer, int offset) {
+        super.setBuffer(buffer, offset);
+        int dataOffset = getDataOffset();
+        sequenceNumber = buffer.getInt(dataOffset);
+        width = buffer.getInt(dataOffset + 4);
+        height = buffer.getInt(dataOffset + 8);
+        xOffset = buffer.getInt(dataOffset + 12);
+        yOffset = buffer.getInt(dataOffset + 16);
+        delayNumber = buffer.getShort(dataOffset + 20);
+        delayDen = buffer.getShort(dataOffset + 22);
+        disposeOp = buffer.get(dataOffset + 24);
+        blendOp = buffer.get(dataOffset + 25);
+    }
+
+    public int getSequenceNumber() {
+        return sequenceNumber;
+    }
+
+    public void setSequenceNumber(int sequenceNumber) {
+        this.sequenceNumber = sequenceNumber;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public void setWidth(int width) {
+        this.width = width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public void setHeight(int height) {
+        this.height = height;
+    }
+
+    public int getxOffset() {
+        return xOffset;
+    }
+
+    public void setxOffset(int xOffset) {
+        this.xOffset = xOffset;
+    }
+
+    public int getyOffset() {
+        return yOffset;
+    }
+
+    public void setyOffset(int yOffset) {
+        this.yOffset = yOffset;
+    }
+
+    public int getDelayNumber() {
+        return delayNumber;
+    }
+
+    public void setDelayNumber(int delayNumber) {
+        this.delayNumber = delayNumber;
+    }
+
+    public int getDelayDen() {
+        return delayDen;
+    }
+
+    public void setDelayDen(int delayDen) {
+        this.delayDen = delayDen;
+    }
+
+    public int getDisposeOp() {
+        return disposeOp;
+    }
+
+    public void setDisposeOp(int disposeOp) {
+        this.disposeOp = disposeOp;
+    }
+
+    public int getBlendOp() {
+        return blendOp;
+    }
+
+    public void setBlendOp(int blendOp) {
+        this.blendOp = blendOp;
+    }
+}
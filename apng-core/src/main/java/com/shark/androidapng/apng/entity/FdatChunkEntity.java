@@ -0,0 +1,64 @@
+package com.shark.androidapng.apng.entity;
+
+import com.shark.androidapng.apng.ApngParser;
+import com.shark.androidapng.util.ByteUtil;
+import com.shark.androidapng.util.CrcUtil;
+
+import java.nio.ByteBuffer;
+
+/**
+ * fdAT is an IDAT with a 4 bytes sequence number in front of the data.
+ */
+public class FdatChunkEntity extends ChunkEntity {
+
+    public static final int SEQUENCE_NUMBER_BYTES_LENGTH = 4;
+
+    private int sequenceNumber;
+
+    @Override
+    public void setBuffer(ByteBuffer buffer, int offset) {
+        super.setBuffer(buffer, offset);
+        sequenceNumber = buffer.getInt(getDataOffset());
+    }
+
+    /** crc of the IDAT tag alone */
+    private static final int IDAT_TAG_CRC = CrcUtil.crc(ApngParser.IDAT_TAG_BYTES, 0, TAG_BYTES_LENGTH);
+
+    /**
+     * Build the IDAT chunk a standalone png needs for this frame. The crc is not computed over
+     * the data again, it is derived from the stored fdAT crc: a corrupt fdAT gives a corrupt
+     * IDAT.
+     */
+    public ChunkEntity toIdatChunkEntity() {
+        int idatLength = getLength() - SEQUENCE_NUMBER_BYTES_LENGTH;
+        ChunkEntity idatChunkEntity = new ChunkEntity();
+        idatChunkEntity.setLength(idatLength);
+        idatChunkEntity.setTag(ApngParser.IDAT_TAG);
+        byte[] chunkBytes = new byte[LENGTH_BYTES_LENGTH + TAG_BYTES_LENGTH + idatLength + CRC_BYTES_LENGTH];
+        ByteBuffer chunkBuffer = ByteBuffer.wrap(chunkBytes);
+        chunkBuffer.putInt(0, idatLength);
+        System.arraycopy(ApngParser.IDAT_TAG_BYTES, 0, chunkBytes, LENGTH_BYTES_LENGTH, TAG_BYTES_LENGTH);
+        int dataOffset = LENGTH_BYTES_LENGTH + TAG_BYTES_LENGTH;
+        ByteUtil.copyBytes(getBuffer(), getDataOffset() + SEQUENCE_NUMBER_BYTES_LENGTH, chunkBytes, dataOffset, idatLength);
+        chunkBuffer.putInt(dataOffset + idatLength, getIdatCrc());
+        idatChunkEntity.setBuffer(chunkBuffer, 0);
+        return idatChunkEntity;
+    }
+
+    /**
+     * @return the crc of the IDAT with the data of this fdAT, from the stored crc without
+     * reading the data
+     */
+    public int getIdatCrc() {
+        int fdatHeadCrc = CrcUtil.crc(getBuffer(), getTagOffset(), TAG_BYTES_LENGTH + SEQUENCE_NUMBER_BYTES_LENGTH);
+        return CrcUtil.replaceHead(getCrc(), fdatHeadCrc, IDAT_TAG_CRC, getLength() - SEQUENCE_NUMBER_BYTES_LENGTH);
+    }
+
+    public int getSequenceNumber() {
+        return sequenceNumber;
+    }
+
+    public void setSequenceNumber(int sequenceNumber) {
+        this.sequenceNumber = sequenceNumber;
+    }
+}
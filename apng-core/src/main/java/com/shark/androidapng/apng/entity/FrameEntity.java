@@ -0,0 +1,95 @@
+package com.shark.androidapng.apng.entity;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Created by Shark0 on 2016/9/13.
+ *
+ * The frame data is kept as parsed, an fdAT is only rewritten into the IDAT a png needs the
+ * first time the frame is requested.
+ *
+ * Encoders may split the data of a frame into several IDAT or fdAT chunks, they are kept as
+ * segments in image order and never merged.
+ */
+public class FrameEntity {
+    private FctlChunkEntity frameControlChunk;
+
+    private final List<ChunkEntity> frameDataChunkList = new ArrayList<>(1);
+    private final List<ChunkEntity> rawFrameDataChunkList = Collections.unmodifiableList(frameDataChunkList);
+
+    private List<ChunkEntity> idatChunkList;
+
+    public FctlChunkEntity getFrameControlChunk() {
+        return frameControlChunk;
+    }
+
+    public void setFrameControlChunk(FctlChunkEntity frameControlChunk) {
+        this.frameControlChunk = frameControlChunk;
+    }
+
+    /**
+     * @return the first segment of the frame data as an IDAT chunk, see
+     * {@link #getFrameDataChunkList()} for the whole frame
+     */
+    public ChunkEntity getFrameDataChunk() {
+        return getFrameDataChunkList().get(0);
+    }
+
+    /**
+     * @return every segment of the frame data as an IDAT chunk
+     */
+    public synchronized List<ChunkEntity> getFrameDataChunkList() {
+        if(idatChunkList == null) {
+            List<ChunkEntity> chunkList = new ArrayList<>(frameDataChunkList.size());
+            for(ChunkEntity chunkEntity: frameDataChunkList) {
+                if(chunkEntity instanceof FdatChunkEntity) {
+                    chunkList.add(((FdatChunkEntity) chunkEntity).toIdatChunkEntity());
+                } else {
+                    chunkList.add(chunkEntity);
+                }
+            }
+            idatChunkList = Collections.unmodifiableList(chunkList);
+        }
+        return idatChunkList;
+    }
+
+    /**
+     * @return true once {@link #getFrameDataChunkList()} built the IDAT chunks
+     */
+    public synchronized boolean isFrameDataChunkListBuilt() {
+        return idatChunkList != null;
+    }
+
+    /**
+     * @param frameDataChunk IDAT or fdAT chunk as found in the image, replaces every segment
+     */
+    public synchronized void setFrameDataChunk(ChunkEntity frameDataChunk) {
+        frameDataChunkList.clear();
+        frameDataChunkList.add(frameDataChunk);
+        idatChunkList = null;
+    }
+
+    /**
+     * @param frameDataChunk the next IDAT or fdAT chunk of the frame as found in the image
+     */
+    public synchronized void addFrameDataChunk(ChunkEntity frameDataChunk) {
+        frameDataChunkList.add(frameDataChunk);
+        idatChunkList = null;
+    }
+
+    /**
+     * @return the first IDAT or fdAT chunk as found in the image, without any rewrite
+     */
+    public synchronized ChunkEntity getRawFrameDataChunk() {
+        return frameDataChunkList.isEmpty() ? null : frameDataChunkList.get(0);
+    }
+
+    /**
+     * @return every IDAT or fdAT chunk of the frame as found in the image
+     */
+    public List<ChunkEntity> getRawFrameDataChunkList() {
+        return rawFrameDataChunkList;
+    }
+}
@@ -0,0 +1,107 @@
+package com.shark.androidapng.apng.entity;
+
+import com.shark.androidapng.util.ByteUtil;
+import com.shark.androidapng.util.CrcUtil;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Created by Shark0 on 2016/9/22.
+ */
+public class IhdrChunkEntity extends ChunkEntity {
+
+    private int width;
+    private int height;
+    private int bitDepth;
+    private int colourType;
+    private int compressionMethod;
+    private int filterMethod;
+    private int interfaceMethod;
+
+    /**
+     * Ihdr keeps its own copy of the chunk, {@link #resize(int, int)} copies it for every frame
+     * size. The chunk is never written after this, a parsed ihdr can be shared by any thread.
+     */
+    @Override
+    public void setBuffer(ByteBuffer buffer, int offset) {
+        byte[] chunkBytes = new byte[LENGTH_BYTES_LENGTH + TAG_BYTES_LENGTH + getLength() + CRC_BYTES_LENGTH];
+        ByteUtil.copyBytes(buffer, offset, chunkBytes, 0, chunkBytes.length);
+        super.setBuffer(ByteBuffer.wrap(chunkBytes), 0);
+        ByteBuffer chunkBuffer = getBuffer();
+        int dataOffset = getDataOffset();
+        width = chunkBuffer.getInt(dataOffset);
+        height = chunkBuffer.getInt(dataOffset + 4);
+        bitDepth = chunkBuffer.get(dataOffset + 8);
+        colourType = chunkBuffer.get(dataOffset + 9);
+        compressionMethod = chunkBuffer.get(dataOffset + 10);
+        filterMethod = chunkBuffer.get(dataOffset + 11);
+        interfaceMethod = chunkBuffer.get(dataOffset + 12);
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * @return a copy of this chunk with another width and height, this one is not changed so
+     * it can be called from any thread
+     */
+    public ChunkEntity resize(int width, int height) {
+        byte[] chunkBytes = new byte[getChunkLength()];
+        writeTo(chunkBytes, 0);
+        ByteBuffer chunkBuffer = ByteBuffer.wrap(chunkBytes);
+        chunkBuffer.putInt(getDataOffset() - getOffset(), width);
+        chunkBuffer.putInt(getDataOffset() - getOffset() + 4, height);
+        chunkBuffer.putInt(getCrcOffset() - getOffset(), CrcUtil.crc(chunkBytes, LENGTH_BYTES_LENGTH, TAG_BYTES_LENGTH + getLength()));
+
+        ChunkEntity chunkEntity = new ChunkEntity();
+        chunkEntity.setLength(getLength());
+        chunkEntity.setTag(getTag());
+        chunkEntity.setBuffer(chunkBuffer.asReadOnlyBuffer(), 0);
+        return chunkEntity;
+    }
+
+    public int getBitDepth() {
+        return bitDepth;
+    }
+
+    public void setBitDepth(int bitDepth) {
+        this.bitDepth = bitDepth;
+    }
+
+    public int getColourType() {
+        return colourType;
+    }
+
+    public void setColourType(int colourType) {
+        this.colourType = colourType;
+    }
+
+    public int getCompressionMethod() {
+        return compressionMethod;
+    }
+
+    public void setCompressionMethod(int compressionMethod) {
+        this.compressionMethod = compressionMethod;
+    }
+
+    public int getFilterMethod() {
+        return filterMethod;
+    }
+
+    public void setFilterMethod(int filterMethod) {
+        this.filterMethod = filterMethod;
+    }
+
+    public int getInterfaceMethod() {
+        return interfaceMethod;
+    }
+
+    public void setInterfaceMethod(int interfaceMethod) {
+        this.interfaceMethod = interfaceMethod;
+    }
+}
@@ -0,0 +1,243 @@
+package com.shark.androidapng.apng.player;
+
+import java.util.ArrayDeque;
+import java.util.PriorityQueue;
+
+/**
+ * Decode threads shared by every animation of the process, so the decode cpu stays bounded
+ * however many animations are on screen.
+ *
+ * Each animation gets a {@link DecodeQueue}: its tasks run one at a time in submission order,
+ * frames are composited on top of each other. Between animations the queue whose next task
+ * has the nearest deadline runs first. Throttled queues only run when no other queue waits,
+ * parked queues do not run at all until unparked.
+ *
+ * A task throwing does not stop the queue: the exception goes to the
+ * {@link OnTaskFailedListener} of its queue, or to the uncaught exception handler of the
+ * thread when there is none.
+ */
+public class ApngDecodeScheduler {
+
+    public interface OnTaskFailedListener {
+
+        /**
+         * Called on the decode thread, the next task of the queue runs afterwards.
+         */
+        void onTaskFailed(Runnable task, RuntimeException e);
+    }
+
+    private static ApngDecodeScheduler instance;
+
+    private final Object lock = new Object();
+    /** queues with a task ready to run, nearest deadline first */
+    private final PriorityQueue<DecodeQueue> readyQueue = new PriorityQueue<>();
+    private final Thread[] workers;
+    private boolean shutdown;
+
+    /**
+     * @return the scheduler of the process, one thread per core but one left to the ui
+     */
+    public static synchronized ApngDecodeScheduler getInstance() {
+        if(instance == null) {
+            int threadCount = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+            instance = new ApngDecodeScheduler(threadCount);
+        }
+        return instance;
+    }
+
+    public ApngDecodeScheduler(int threadCount) {
+        workers = new Thread[threadCount];
+        for(int i = 0; i < threadCount; i ++) {
+            workers[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    runTasks();
+                }
+            }, "apng-decode-" + i);
+            workers[i].setDaemon(true);
+            workers[i].setPriority(Thread.NORM_PRIORITY - 1);
+            workers[i].start();
+        }
+    }
+
+    public DecodeQueue createQueue() {
+        return new DecodeQueue();
+    }
+
+    public int getThreadCount() {
+        return workers.length;
+    }
+
+    /**
+     * Stop the threads once the running tasks are done, queued tasks are dropped.
+     */
+    public void shutdown() {
+        synchronized (lock) {
+            shutdown = true;
+            readyQueue.clear();
+            lock.notifyAll();
+        }
+    }
+
+    private void runTasks() {
+        while(true) {
+            DecodeQueue decodeQueue;
+            Runnable task;
+            OnTaskFailedListener onTaskFailedListener;
+            synchronized (lock) {
+                while(readyQueue.isEmpty() && !shutdown) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if(shutdown) {
+                    return;
+                }
+                decodeQueue = readyQueue.poll();
+                onTaskFailedListener = decodeQueue.onTaskFailedListener;
+                task = decodeQueue.taskQueue.poll().runnable;
+                decodeQueue.ready = false;
+                decodeQueue.running = true;
+            }
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                if(onTaskFailedListener != null) {
+                    onTaskFailedListener.onTaskFailed(task, e);
+                } else {
+                    // reported like any uncaught exception, the worker goes on
+                    Thread thread = Thread.currentThread();
+                    thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+                }
+            } finally {
+                synchronized (lock) {
+                    decodeQueue.running = false;
+                    decodeQueue.updateReady();
+                }
+            }
+        }
+    }
+
+    private static class Task {
+        private final Runnable runnable;
+        private final long deadline;
+
+        private Task(Runnable runnable, long deadline) {
+            this.runnable = runnable;
+            this.deadline = deadline;
+        }
+    }
+
+    /**
+     * The tasks of one animation. Thread safe.
+     */
+    public class DecodeQueue implements Comparable<DecodeQueue> {
+
+        private final ArrayDeque<Task> taskQueue = new ArrayDeque<>();
+        private boolean running;
+        private boolean ready;
+        private boolean parked;
+        private boolean throttled;
+        private OnTaskFailedListener onTaskFailedListener;
+
+        /**
+         * @param deadline when the result is needed, in any clock shared by all the queues
+         */
+        public void submit(Runnable runnable, long deadline) {
+            synchronized (lock) {
+                taskQueue.add(new Task(runnable, deadline));
+                updateReady();
+            }
+        }
+
+        /**
+         * Drop the tasks not started yet, a running task still finishes.
+         *
+         * @return count of dropped tasks
+         */
+        public int cancelPending() {
+            synchronized (lock) {
+                int count = taskQueue.size();
+                taskQueue.clear();
+                updateReady();
+                return count;
+            }
+        }
+
+        /**
+         * A parked queue keeps its tasks but none of them runs until it is unparked.
+         */
+        public void setParked(boolean parked) {
+            synchronized (lock) {
+                this.parked = parked;
+                updateReady();
+            }
+        }
+
+        /**
+         * A throttled queue only runs when no unthrottled queue has a task waiting.
+         */
+        public void setThrottled(boolean throttled) {
+            synchronized (lock) {
+                if(ready) {
+                    readyQueue.remove(this);
+                }
+                this.throttled = throttled;
+                if(ready) {
+                    readyQueue.add(this);
+                }
+            }
+        }
+
+        /**
+         * @param onTaskFailedListener told about the tasks of this queue which threw, null for
+         *                             the uncaught exception handler of the decode thread
+         */
+        public void setOnTaskFailedListener(OnTaskFailedListener onTaskFailedListener) {
+            synchronized (lock) {
+                this.onTaskFailedListener = onTaskFailedListener;
+            }
+        }
+
+        public boolean isParked() {
+            synchronized (lock) {
+                return parked;
+            }
+        }
+
+        public boolean isThrottled() {
+            synchronized (lock) {
+                return throttled;
+            }
+        }
+
+        /**
+         * Lock held: be in the ready queue exactly when a task can run.
+         */
+        private void updateReady() {
+            boolean ready = !shutdown && !running && !parked && !taskQueue.isEmpty();
+            if(ready == this.ready) {
+                return;
+            }
+            this.ready = ready;
+            if(ready) {
+                readyQueue.add(this);
+                lock.notify();
+            } else {
+                readyQueue.remove(this);
+            }
+        }
+
+        @Override
+        public int compareTo(DecodeQueue decodeQueue) {
+            if(throttled != decodeQueue.throttled) {
+                return throttled ? 1 : -1;
+            }
+            long deadline = taskQueue.peek().deadline;
+            long otherDeadline = decodeQueue.taskQueue.peek().deadline;
+            return deadline < otherDeadline ? -1 : (deadline == otherDeadline ? 0 : 1);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.shark.androidapng.apng.pool;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+
+/**
+ * Pool of reusable items grouped by key, for example bitmaps by size and config. Items are
+ * counted against a byte budget, the least recently released ones are evicted first.
+ *
+ * Thread safe.
+ */
+public class LruPool<T> {
+
+    /**
+     * How the pool sizes the items it holds and drops the evicted ones.
+     */
+    public interface Adapter<T> {
+
+        int getByteCount(T item);
+
+        void onEvicted(T item);
+    }
+
+    private static class Entry<T> {
+        private final long key;
+        private final T item;
+        private final int byteCount;
+
+        private Entry(long key, T item, int byteCount) {
+            this.key = key;
+            this.item = item;
+            this.byteCount = byteCount;
+        }
+    }
+
+    private final Adapter<T> adapter;
+    private final Map<Long, ArrayDeque<Entry<T>>> entryMap = new HashMap<>();
+    /** least recently released first */
+    private final LinkedHashSet<Entry<T>> lruEntrySet = new LinkedHashSet<>();
+
+    private int maxBytes;
+    private int currentBytes;
+    private int hitCount;
+    private int missCount;
+    private int evictionCount;
+
+    public LruPool(int maxBytes, Adapter<T> adapter) {
+        this.maxBytes = maxBytes;
+        this.adapter = adapter;
+    }
+
+    /**
+     * @return an item released with this key, removed from the pool, or null
+     */
+    public synchronized T get(long key) {
+        ArrayDeque<Entry<T>> entries = entryMap.get(key);
+        Entry<T> entry = entries != null ? entries.pollLast() : null;
+        if(entry == null) {
+            missCount = missCount + 1;
+            return null;
+        }
+        if(entries.isEmpty()) {
+            entryMap.remove(key);
+        }
+        lruEntrySet.remove(entry);
+        currentBytes = currentBytes - entry.byteCount;
+        hitCount = hitCount + 1;
+        return entry.item;
+    }
+
+    /**
+     * Release an item for reuse, evicting the least recently released items over the budget.
+     */
+    public synchronized void put(long key, T item) {
+        int byteCount = adapter.getByteCount(item);
+        if(byteCount > maxBytes) {
+            evictionCount = evictionCount + 1;
+            adapter.onEvicted(item);
+            return;
+        }
+        Entry<T> entry = new Entry<>(key, item, byteCount);
+        ArrayDeque<Entry<T>> entries = entryMap.get(key);
+        if(entries == null) {
+            entries = new ArrayDeque<>();
+            entryMap.put(key, entries);
+        }
+        entries.addLast(entry);
+        lruEntrySet.add(entry);
+        currentBytes = currentBytes + byteCount;
+        trimToSize(maxBytes);
+    }
+
+    /**
+     * Evict the least recently released items until at most maxBytes are held.
+     */
+    public synchronized void trimToSize(int maxBytes) {
+        Iterator<Entry<T>> iterator = lruEntrySet.iterator();
+        while(currentBytes > maxBytes && iterator.hasNext()) {
+            Entry<T> entry = iterator.next();
+            iterator.remove();
+            ArrayDeque<Entry<T>> entries = entryMap.get(entry.key);
+            entries.removeFirstOccurrence(entry);
+            if(entries.isEmpty()) {
+                entryMap.remove(entry.key);
+            }
+            currentBytes = currentBytes - entry.byteCount;
+            evictionCount = evictionCount + 1;
+            adapter.onEvicted(entry.item);
+        }
+    }
+
+    public synchronized void clear() {
+        trimToSize(-1);
+    }
+
+    public synchronized int getMaxBytes() {
+        return maxBytes;
+    }
+
+    public synchronized void setMaxBytes(int maxBytes) {
+        this.maxBytes = maxBytes;
+        trimToSize(maxBytes);
+    }
+
+    public synchronized int getCurrentBytes() {
+        return currentBytes;
+    }
+
+    public synchronized int getCount() {
+        return lruEntrySet.size();
+    }
+
+    public synchronized int getHitCount() {
+        return hitCount;
+    }
+
+    public synchronized int getMissCount() {
+        return missCount;
+    }
+
+    public synchronized int getEvictionCount() {
+        return evictionCount;
+    }
+}
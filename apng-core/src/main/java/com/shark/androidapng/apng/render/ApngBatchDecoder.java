@@ -0,0 +1,161 @@
+package com.shark.androidapng.apng.render;
+
+import com.shark.androidapng.apng.ApngFormatException;
+import com.shark.androidapng.apng.ApngFrameAssembler;
+import com.shark.androidapng.apng.decoder.PngDecoder;
+import com.shark.androidapng.apng.entity.FctlChunkEntity;
+import com.shark.androidapng.apng.entity.FrameEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Decodes every frame of an animation at once, for exports like sprite sheets or previews.
+ * Inflating and unfiltering a frame does not depend on the other frames, so the frame regions
+ * are decoded in parallel on a {@link ForkJoinPool}, each worker with its own
+ * {@link PngDecoder}. Only compositing needs the frames in order, it is one pass over the
+ * decoded regions on the calling thread.
+ *
+ * Every frame region is held in memory until it was composited.
+ */
+public class ApngBatchDecoder {
+
+    public interface OnFrameListener {
+
+        /**
+         * Called on the thread of {@link #compose(OnFrameListener)} in frame order.
+         *
+         * @param canvas the composited frame, width by height, overwritten by the next frame
+         */
+        void onFrame(int[] canvas, int frameIndex);
+    }
+
+    /** splits per worker, so workers done early can steal from the slow ones */
+    private static final int SPLITS_PER_WORKER = 4;
+
+    private final List<FrameEntity> frameList;
+    private final ApngFrameAssembler frameAssembler;
+    private final int width;
+    private final int height;
+    private final ForkJoinPool forkJoinPool;
+
+    /**
+     * @param frameAssembler gives the decoders, it must not assemble frames while decoding
+     * @param forkJoinPool owned by the caller, its parallelism is the number of frames decoded
+     *                     at the same time
+     */
+    public ApngBatchDecoder(List<FrameEntity> frameList, ApngFrameAssembler frameAssembler,
+                            int width, int height, ForkJoinPool forkJoinPool) {
+        this.frameList = new ArrayList<>(frameList);
+        this.frameAssembler = frameAssembler;
+        this.width = width;
+        this.height = height;
+        this.forkJoinPool = forkJoinPool;
+    }
+
+    /**
+     * @return the pixels of every frame region, fcTL width by fcTL height, not composited
+     */
+    public int[][] decodeFrames() throws ApngFormatException {
+        int[][] framePixels = new int[frameList.size()][];
+        if(framePixels.length == 0) {
+            return framePixels;
+        }
+        int batchSize = Math.max(1, framePixels.length / (forkJoinPool.getParallelism() * SPLITS_PER_WORKER));
+        try {
+            forkJoinPool.invoke(new DecodeTask(framePixels, 0, framePixels.length, batchSize));
+        } catch (RuntimeException e) {
+            // the pool may hand out a copy of the exception thrown by the worker
+            Throwable cause = e;
+            while(cause != null && !(cause instanceof ApngFormatException)) {
+                cause = cause.getCause();
+            }
+            if(cause == null) {
+                throw e;
+            }
+            throw (ApngFormatException) cause;
+        }
+        return framePixels;
+    }
+
+    /**
+     * Decode every frame in parallel then composite them in order.
+     */
+    public void compose(OnFrameListener onFrameListener) throws ApngFormatException {
+        int[][] framePixels = decodeFrames();
+        ApngCompositor compositor = new ApngCompositor(width, height);
+        for(int i = 0; i < framePixels.length; i++) {
+            FctlChunkEntity fctlChunkEntity = frameList.get(i).getFrameControlChunk();
+            compositor.compose(fctlChunkEntity, framePixels[i], 0, fctlChunkEntity.getWidth());
+            // composited regions are not needed any more
+            framePixels[i] = null;
+            onFrameListener.onFrame(compositor.getCanvas(), i);
+        }
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * The checked exception of a worker, unwrapped by {@link #decodeFrames()}.
+     */
+    private static class DecodeException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        DecodeException(ApngFormatException cause) {
+            super(cause);
+        }
+    }
+
+    private class DecodeTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int[][] framePixels;
+        private final int start;
+        private final int end;
+        private final int batchSize;
+
+        DecodeTask(int[][] framePixels, int start, int end, int batchSize) {
+            this.framePixels = framePixels;
+            this.start = start;
+            this.end = end;
+            this.batchSize = batchSize;
+        }
+
+        @Override
+        protected void compute() {
+            if(end - start > batchSize) {
+                int middle = (start + end) >>> 1;
+                invokeAll(new DecodeTask(framePixels, start, middle, batchSize),
+                        new DecodeTask(framePixels, middle, end, batchSize));
+                return;
+            }
+            PngDecoder decoder = null;
+            try {
+                decoder = frameAssembler.createDecoder();
+                for(int i = start; i < end; i++) {
+                    FrameEntity frameEntity = frameList.get(i);
+                    FctlChunkEntity fctlChunkEntity = frameEntity.getFrameControlChunk();
+                    int[] pixels = new int[fctlChunkEntity.getWidth() * fctlChunkEntity.getHeight()];
+                    decoder.decode(frameEntity, pixels, 0, fctlChunkEntity.getWidth());
+                    framePixels[i] = pixels;
+                }
+            } catch (ApngFormatException e) {
+                throw new DecodeException(e);
+            } finally {
+                if(decoder != null) {
+                    decoder.release();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.shark.androidapng.apng.render;
+
+import com.shark.androidapng.apng.entity.FctlChunkEntity;
+import com.shark.androidapng.util.SampleSizeUtil;
+
+import java.util.Arrays;
+
+/**
+ * Composites frames onto one canvas following the fcTL offsets, dispose op and blend op.
+ * Pixels are non premultiplied ARGB. Frames have to be composed in order, {@link #reset()}
+ * starts over from an empty canvas.
+ *
+ * Frame regions and dispose ops are kept by a {@link DisposeRegion}, only the blend is done
+ * here.
+ *
+ * With a sample size the canvas is subsampled, see {@link SampleSizeUtil}: fcTL offsets and
+ * sizes stay those of the image and are scaled here, frames are decoded with the same sample
+ * size by {@link com.shark.androidapng.apng.decoder.PngDecoder#decode(com.shark.androidapng.apng.entity.FrameEntity, int, int[], int, int)}.
+ */
+public class ApngCompositor {
+
+    private final int width;
+    private final int height;
+    private final int sampleSize;
+    private final int[] canvas;
+
+    private int frameIndex = -1;
+
+    private final DisposeRegion<int[]> disposeRegion;
+
+    public ApngCompositor(int width, int height) {
+        this(width, height, 1);
+    }
+
+    /**
+     * @param width width of the image, the canvas is scaled by the sample size
+     * @param sampleSize a power of two, 1 for every pixel
+     */
+    public ApngCompositor(int width, int height, int sampleSize) {
+        SampleSizeUtil.checkSampleSize(sampleSize);
+        this.sampleSize = sampleSize;
+        this.width = SampleSizeUtil.scaleLength(0, width, sampleSize);
+        this.height = SampleSizeUtil.scaleLength(0, height, sampleSize);
+        this.canvas = new int[this.width * this.height];
+        disposeRegion = new DisposeRegion<int[]>(canvas, this.width, this.height) {
+
+            @Override
+            protected int[] allocate(int length) {
+                return new int[length];
+            }
+
+            @Override
+            protected int getLength(int[] array) {
+                return array.length;
+            }
+
+            @Override
+            protected void clear(int[] canvas, int fromIndex, int toIndex) {
+                Arrays.fill(canvas, fromIndex, toIndex, 0);
+            }
+        };
+    }
+
+    public void reset() {
+        reset(0);
+    }
+
+    /**
+     * Start over from an empty canvas at a frame that does not depend on the ones before it,
+     * see {@link ApngFrameSeeker}.
+     */
+    public void reset(int frameIndex) {
+        Arrays.fill(canvas, 0);
+        this.frameIndex = frameIndex - 1;
+        disposeRegion.reset();
+    }
+
+    /**
+     * Start over from a copy of the canvas taken right after {@link #disposeFrame()}.
+     *
+     * @param pixels the canvas before the frame, width by height
+     */
+    public void restore(int[] pixels, int frameIndex) {
+        System.arraycopy(pixels, 0, canvas, 0, canvas.length);
+        this.frameIndex = frameIndex - 1;
+        disposeRegion.reset();
+    }
+
+    /**
+     * Dispose the previous frame then draw this one.
+     *
+     * @param framePixels pixels of the frame region, fctl width by fctl height scaled by the
+     *                    sample size
+     * @param offset index of the first frame pixel in framePixels
+     * @param stride pixels between two rows in framePixels
+     */
+    public void compose(FctlChunkEntity fctlChunkEntity, int[] framePixels, int offset, int stride) {
+        disposeFrame();
+
+        disposeRegion.setFrame(fctlChunkEntity, sampleSize);
+        int x = disposeRegion.getX();
+        int y = disposeRegion.getY();
+        int frameWidth = disposeRegion.getFrameWidth();
+        int frameHeight = disposeRegion.getFrameHeight();
+        disposeRegion.keepDisposeOp(fctlChunkEntity.getDisposeOp(), frameIndex == -1);
+
+        boolean over = fctlChunkEntity.getBlendOp() == FctlChunkEntity.BLEND_OP_OVER;
+        for(int row = 0; row < frameHeight; row ++) {
+            int canvasIndex = (y + row) * width + x;
+            int pixelIndex = offset + row * stride;
+            if(!over) {
+                System.arraycopy(framePixels, pixelIndex, canvas, canvasIndex, frameWidth);
+                continue;
+            }
+            for(int column = 0; column < frameWidth; column ++) {
+                canvas[canvasIndex + column] = blendOver(framePixels[pixelIndex + column], canvas[canvasIndex + column]);
+            }
+        }
+        frameIndex = frameIndex + 1;
+    }
+
+    /**
+     * Dispose the last frame now instead of with the next one, the canvas is then what the next
+     * frame is drawn onto.
+     */
+    public void disposeFrame() {
+        disposeRegion.dispose();
+    }
+
+    static int blendOver(int source, int destination) {
+        int sourceAlpha = source >>> 24;
+        if(sourceAlpha == 0xFF) {
+            return source;
+        }
+        if(sourceAlpha == 0) {
+            return destination;
+        }
+        int destinationAlpha = destination >>> 24;
+        if(destinationAlpha == 0) {
+            return source;
+        }
+        int destinationWeight = destinationAlpha * (0xFF - sourceAlpha) / 0xFF;
+        int alpha = sourceAlpha + destinationWeight;
+        int red = blendChannel(source >> 16, sourceAlpha, destination >> 16, destinationWeight, alpha);
+        int green = blendChannel(source >> 8, sourceAlpha, destination >> 8, destinationWeight, alpha);
+        int blue = blendChannel(source, sourceAlpha, destination, destinationWeight, alpha);
+        return alpha << 24 | red << 16 | green << 8 | blue;
+    }
+
+    private static int blendChannel(int source, int sourceWeight, int destination, int destinationWeight, int alpha) {
+        return ((source & 0xFF) * sourceWeight + (destination & 0xFF) * destinationWeight + alpha / 2) / alpha;
+    }
+
+    /**
+     * @return the canvas, width by height, valid until the next compose or reset
+     */
+    public int[] getCanvas() {
+        return canvas;
+    }
+
+    /**
+     * @return width of the canvas, the image width scaled by the sample size
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getSampleSize() {
+        return sampleSize;
+    }
+
+    /**
+     * @return index of the last composed frame, the one before the reset frame after a reset
+     */
+    public int getFrameIndex() {
+        return frameIndex;
+    }
+}
@@ -0,0 +1,162 @@
+package com.shark.androidapng.apng.render;
+
+import com.shark.androidapng.apng.ApngFormatException;
+import com.shark.androidapng.apng.decoder.PngDecoder;
+import com.shark.androidapng.apng.entity.FctlChunkEntity;
+import com.shark.androidapng.apng.entity.FrameEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Composites any frame without starting from the first one. A frame is a keyframe when the
+ * canvas before it does not matter: it covers the whole canvas with
+ * {@link FctlChunkEntity#BLEND_OP_SOURCE}, or the frame before it covered the whole canvas and
+ * was disposed to background. Seeking composites from the nearest keyframe, the current frame
+ * or the nearest checkpoint, whichever is closest.
+ *
+ * Checkpoints are copies of the canvas taken every checkpoint interval frames while seeking,
+ * for long animations with few keyframes. Each costs a canvas of memory, none are taken by
+ * default.
+ *
+ * Used by one thread at a time.
+ */
+public class ApngFrameSeeker {
+
+    private final List<FrameEntity> frameList;
+    private final PngDecoder decoder;
+    private final ApngCompositor compositor;
+    private final boolean[] keyframes;
+    private final int[][] checkpoints;
+    private int checkpointInterval;
+    private int[] framePixels = new int[0];
+
+    public ApngFrameSeeker(List<FrameEntity> frameList, PngDecoder decoder, int width, int height) {
+        this.frameList = new ArrayList<>(frameList);
+        this.decoder = decoder;
+        compositor = new ApngCompositor(width, height);
+        keyframes = findKeyframes(this.frameList, width, height);
+        checkpoints = new int[this.frameList.size()][];
+    }
+
+    /**
+     * @return for every frame whether it can be composited onto an empty canvas
+     */
+    public static boolean[] findKeyframes(List<FrameEntity> frameList, int width, int height) {
+        boolean[] keyframes = new boolean[frameList.size()];
+        FctlChunkEntity previousFctlChunkEntity = null;
+        for(int i = 0; i < keyframes.length; i++) {
+            FctlChunkEntity fctlChunkEntity = frameList.get(i).getFrameControlChunk();
+            if(i == 0) {
+                keyframes[i] = true;
+            } else if(isFullCanvas(previousFctlChunkEntity, width, height)
+                    && (previousFctlChunkEntity.getDisposeOp() == FctlChunkEntity.DISPOSE_OP_BACKGROUND
+                    || previousFctlChunkEntity.getDisposeOp() == FctlChunkEntity.DISPOSE_OP_PREVIOUS && i == 1)) {
+                // the canvas is empty again, previous on the first frame means background
+                keyframes[i] = true;
+            } else {
+                // drawn over everything, but previous would restore the unknown canvas before it
+                keyframes[i] = isFullCanvas(fctlChunkEntity, width, height)
+                        && fctlChunkEntity.getBlendOp() == FctlChunkEntity.BLEND_OP_SOURCE
+                        && fctlChunkEntity.getDisposeOp() != FctlChunkEntity.DISPOSE_OP_PREVIOUS;
+            }
+            previousFctlChunkEntity = fctlChunkEntity;
+        }
+        return keyframes;
+    }
+
+    private static boolean isFullCanvas(FctlChunkEntity fctlChunkEntity, int width, int height) {
+        return fctlChunkEntity.getxOffset() == 0 && fctlChunkEntity.getyOffset() == 0
+                && fctlChunkEntity.getWidth() >= width && fctlChunkEntity.getHeight() >= height;
+    }
+
+    /**
+     * @return the canvas of the frame, valid until the next seek
+     */
+    public int[] seek(int frameIndex) throws ApngFormatException {
+        if(frameIndex < 0 || frameIndex >= frameList.size()) {
+            throw new IndexOutOfBoundsException("frame " + frameIndex + " of " + frameList.size());
+        }
+        int currentIndex = compositor.getFrameIndex();
+        if(currentIndex == frameIndex) {
+            return compositor.getCanvas();
+        }
+        int keyframeIndex = findKeyframe(frameIndex);
+        int checkpointIndex = findCheckpoint(frameIndex);
+        int startIndex = Math.max(keyframeIndex, checkpointIndex);
+        if(currentIndex < startIndex - 1 || currentIndex > frameIndex) {
+            if(checkpointIndex > keyframeIndex) {
+                compositor.restore(checkpoints[checkpointIndex], checkpointIndex);
+            } else {
+                compositor.reset(keyframeIndex);
+            }
+        }
+        for(int i = compositor.getFrameIndex() + 1; i <= frameIndex; i++) {
+            if(checkpointInterval > 0 && i % checkpointInterval == 0 && !keyframes[i] && checkpoints[i] == null) {
+                compositor.disposeFrame();
+                checkpoints[i] = compositor.getCanvas().clone();
+            }
+            composeFrame(i);
+        }
+        return compositor.getCanvas();
+    }
+
+    private void composeFrame(int frameIndex) throws ApngFormatException {
+        FrameEntity frameEntity = frameList.get(frameIndex);
+        FctlChunkEntity fctlChunkEntity = frameEntity.getFrameControlChunk();
+        int frameWidth = fctlChunkEntity.getWidth();
+        if(framePixels.length < frameWidth * fctlChunkEntity.getHeight()) {
+            framePixels = new int[frameWidth * fctlChunkEntity.getHeight()];
+        }
+        decoder.decode(frameEntity, framePixels, 0, frameWidth);
+        compositor.compose(fctlChunkEntity, framePixels, 0, frameWidth);
+    }
+
+    /**
+     * @return index of the nearest keyframe at or before the frame
+     */
+    public int findKeyframe(int frameIndex) {
+        for(int i = frameIndex; i > 0; i--) {
+            if(keyframes[i]) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    private int findCheckpoint(int frameIndex) {
+        for(int i = frameIndex; i > 0; i--) {
+            if(checkpoints[i] != null) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public boolean isKeyframe(int frameIndex) {
+        return keyframes[frameIndex];
+    }
+
+    public int getCheckpointInterval() {
+        return checkpointInterval;
+    }
+
+    /**
+     * @param checkpointInterval frames between two checkpoints, 0 for none; checkpoints already
+     *                           taken are dropped
+     */
+    public void setCheckpointInterval(int checkpointInterval) {
+        this.checkpointInterval = Math.max(0, checkpointInterval);
+        for(int i = 0; i < checkpoints.length; i++) {
+            checkpoints[i] = null;
+        }
+    }
+
+    public int getFrameCount() {
+        return frameList.size();
+    }
+
+    public ApngCompositor getCompositor() {
+        return compositor;
+    }
+}
@@ -0,0 +1,145 @@
+package com.shark.androidapng.apng.render;
+
+import com.shark.androidapng.apng.entity.FctlChunkEntity;
+import com.shark.androidapng.util.SampleSizeUtil;
+
+/**
+ * Region of the frame being composed and the dispose op it takes with it, shared by the
+ * compositors whatever their canvas array: {@link ApngCompositor} keeps ARGB ints,
+ * {@link IndexedCompositor} palette indexes. Only the region of a frame disposed with
+ * {@link FctlChunkEntity#DISPOSE_OP_PREVIOUS} is saved, into an array reused from frame to frame.
+ *
+ * @param <T> the canvas array, pixels of a row are contiguous
+ */
+abstract class DisposeRegion<T> {
+
+    private final T canvas;
+    private final int width;
+    private final int height;
+
+    private int x;
+    private int y;
+    private int frameWidth;
+    private int frameHeight;
+
+    private int disposeOp = FctlChunkEntity.DISPOSE_OP_NONE;
+    private int disposeX;
+    private int disposeY;
+    private int disposeWidth;
+    private int disposeHeight;
+    private T previousPixels;
+
+    /**
+     * @param width width of the canvas, already scaled by the sample size
+     */
+    DisposeRegion(T canvas, int width, int height) {
+        this.canvas = canvas;
+        this.width = width;
+        this.height = height;
+        previousPixels = allocate(0);
+    }
+
+    /**
+     * @return a new array of the canvas type
+     */
+    protected abstract T allocate(int length);
+
+    protected abstract int getLength(T array);
+
+    /**
+     * Set the canvas pixels from fromIndex to toIndex to the empty canvas.
+     */
+    protected abstract void clear(T canvas, int fromIndex, int toIndex);
+
+    /**
+     * Scale the fcTL region by the sample size and clip it to the canvas, see
+     * {@link #getX()} and the other getters.
+     */
+    void setFrame(FctlChunkEntity fctlChunkEntity, int sampleSize) {
+        x = SampleSizeUtil.scaleOffset(fctlChunkEntity.getxOffset(), sampleSize);
+        y = SampleSizeUtil.scaleOffset(fctlChunkEntity.getyOffset(), sampleSize);
+        frameWidth = Math.min(SampleSizeUtil.scaleLength(fctlChunkEntity.getxOffset(), fctlChunkEntity.getWidth(), sampleSize), width - x);
+        frameHeight = Math.min(SampleSizeUtil.scaleLength(fctlChunkEntity.getyOffset(), fctlChunkEntity.getHeight(), sampleSize), height - y);
+        if(x < 0 || y < 0 || frameWidth <= 0 || frameHeight <= 0) {
+            frameWidth = 0;
+            frameHeight = 0;
+        }
+    }
+
+    /**
+     * Remember how the frame set by {@link #setFrame(FctlChunkEntity, int)} is disposed, the
+     * region under it is saved when it is restored to the previous canvas. Call it before the
+     * frame is drawn.
+     */
+    void keepDisposeOp(int disposeOp, boolean firstFrame) {
+        if(disposeOp == FctlChunkEntity.DISPOSE_OP_PREVIOUS && firstFrame) {
+            // nothing before the first frame, the spec treats it as background
+            disposeOp = FctlChunkEntity.DISPOSE_OP_BACKGROUND;
+        }
+        this.disposeOp = disposeOp;
+        disposeX = x;
+        disposeY = y;
+        disposeWidth = frameWidth;
+        disposeHeight = frameHeight;
+        if(disposeOp == FctlChunkEntity.DISPOSE_OP_PREVIOUS) {
+            int size = frameWidth * frameHeight;
+            if(getLength(previousPixels) < size) {
+                previousPixels = allocate(size);
+            }
+            for(int row = 0; row < frameHeight; row ++) {
+                System.arraycopy(canvas, (y + row) * width + x, previousPixels, row * frameWidth, frameWidth);
+            }
+        }
+    }
+
+    /**
+     * Apply the dispose op of the last frame, at most once.
+     */
+    void dispose() {
+        switch (disposeOp) {
+            case FctlChunkEntity.DISPOSE_OP_BACKGROUND:
+                for(int row = 0; row < disposeHeight; row ++) {
+                    int canvasIndex = (disposeY + row) * width + disposeX;
+                    clear(canvas, canvasIndex, canvasIndex + disposeWidth);
+                }
+                break;
+            case FctlChunkEntity.DISPOSE_OP_PREVIOUS:
+                for(int row = 0; row < disposeHeight; row ++) {
+                    System.arraycopy(previousPixels, row * disposeWidth, canvas, (disposeY + row) * width + disposeX, disposeWidth);
+                }
+                break;
+            default:
+                break;
+        }
+        disposeOp = FctlChunkEntity.DISPOSE_OP_NONE;
+    }
+
+    /**
+     * Forget the dispose op of the last frame, the canvas was replaced.
+     */
+    void reset() {
+        disposeOp = FctlChunkEntity.DISPOSE_OP_NONE;
+    }
+
+    /**
+     * @return left of the frame region in the canvas
+     */
+    int getX() {
+        return x;
+    }
+
+    int getY() {
+        return y;
+    }
+
+    /**
+     * @return width of the frame region clipped to the canvas, 0 when nothing of it is drawn
+     */
+    int getFrameWidth() {
+        return frameWidth;
+    }
+
+    int getFrameHeight() {
+        return frameHeight;
+    }
+}
@@ -0,0 +1,195 @@
+package com.shark.androidapng.apng.render;
+
+import com.shark.androidapng.apng.entity.FctlChunkEntity;
+import com.shark.androidapng.util.SampleSizeUtil;
+
+import java.util.Arrays;
+
+/**
+ * Composites the palette indexes of an indexed image onto a canvas of one byte per pixel, a
+ * quarter of the ARGB canvas of {@link ApngCompositor}. Frames are decoded with
+ * {@link com.shark.androidapng.apng.decoder.PngDecoder#decode(com.shark.androidapng.apng.entity.FrameEntity, int, byte[], int, int)}
+ * and the canvas is expanded with {@link #expand(byte[], int[])} when drawn.
+ *
+ * Blending over keeps the canvas index under a fully transparent frame index and the frame
+ * index over an opaque one or onto a transparent canvas index. A partly transparent colour
+ * blended over a visible one is missing from the palette: {@link #compose(FctlChunkEntity, byte[], int, int)}
+ * then gives up and the animation goes on with an {@link ApngCompositor}. The empty canvas is
+ * the clear index, see {@link #findClearIndex(int[])}.
+ */
+public class IndexedCompositor {
+
+    private static final int INDEXES_LENGTH = 256;
+
+    private final int width;
+    private final int height;
+    private final int sampleSize;
+    private final byte[] canvas;
+    private final int[] palette = new int[INDEXES_LENGTH];
+    private final int[] alphas = new int[INDEXES_LENGTH];
+    private final byte clearIndex;
+
+    private int frameIndex = -1;
+
+    private final DisposeRegion<byte[]> disposeRegion;
+
+    /**
+     * @param palette ARGB colour of every index, see {@link com.shark.androidapng.apng.decoder.PngDecoder#getPalette()}
+     * @param sampleSize a power of two, 1 for every pixel
+     */
+    public IndexedCompositor(int width, int height, int sampleSize, int[] palette) {
+        SampleSizeUtil.checkSampleSize(sampleSize);
+        this.sampleSize = sampleSize;
+        this.width = SampleSizeUtil.scaleLength(0, width, sampleSize);
+        this.height = SampleSizeUtil.scaleLength(0, height, sampleSize);
+        this.canvas = new byte[this.width * this.height];
+        int length = Math.min(palette.length, INDEXES_LENGTH);
+        System.arraycopy(palette, 0, this.palette, 0, length);
+        for(int i = 0; i < INDEXES_LENGTH; i++) {
+            alphas[i] = this.palette[i] >>> 24;
+        }
+        // without a clear index the empty canvas never shows, any index does
+        clearIndex = (byte) Math.max(0, findClearIndex(palette));
+        disposeRegion = new DisposeRegion<byte[]>(canvas, this.width, this.height) {
+
+            @Override
+            protected byte[] allocate(int length) {
+                return new byte[length];
+            }
+
+            @Override
+            protected int getLength(byte[] array) {
+                return array.length;
+            }
+
+            @Override
+            protected void clear(byte[] canvas, int fromIndex, int toIndex) {
+                Arrays.fill(canvas, fromIndex, toIndex, clearIndex);
+            }
+        };
+        reset();
+    }
+
+    /**
+     * @return an index showing the empty canvas: a fully transparent colour, or the first
+     * index past a palette shorter than 256 colours, -1 when there is none
+     */
+    public static int findClearIndex(int[] palette) {
+        for(int i = 0; i < Math.min(palette.length, INDEXES_LENGTH); i++) {
+            if(palette[i] >>> 24 == 0) {
+                return i;
+            }
+        }
+        return palette.length < INDEXES_LENGTH ? palette.length : -1;
+    }
+
+    public void reset() {
+        Arrays.fill(canvas, clearIndex);
+        frameIndex = -1;
+        disposeRegion.reset();
+    }
+
+    /**
+     * Dispose the previous frame then draw this one.
+     *
+     * @param frameIndexes indexes of the frame region, fctl width by fctl height scaled by the
+     *                     sample size
+     * @return false when the frame blends colours missing from the palette: it is not drawn,
+     * the canvas is left disposed for {@link ApngCompositor#restore(int[], int)}
+     */
+    public boolean compose(FctlChunkEntity fctlChunkEntity, byte[] frameIndexes, int offset, int stride) {
+        disposeFrame();
+
+        disposeRegion.setFrame(fctlChunkEntity, sampleSize);
+        int x = disposeRegion.getX();
+        int y = disposeRegion.getY();
+        int frameWidth = disposeRegion.getFrameWidth();
+        int frameHeight = disposeRegion.getFrameHeight();
+
+        boolean over = fctlChunkEntity.getBlendOp() == FctlChunkEntity.BLEND_OP_OVER;
+        if(over && !isBlendedInIndexes(frameIndexes, offset, stride, x, y, frameWidth, frameHeight)) {
+            return false;
+        }
+
+        disposeRegion.keepDisposeOp(fctlChunkEntity.getDisposeOp(), frameIndex == -1);
+
+        for(int row = 0; row < frameHeight; row ++) {
+            int canvasIndex = (y + row) * width + x;
+            int indexIndex = offset + row * stride;
+            if(!over) {
+                System.arraycopy(frameIndexes, indexIndex, canvas, canvasIndex, frameWidth);
+                continue;
+            }
+            for(int column = 0; column < frameWidth; column ++) {
+                byte index = frameIndexes[indexIndex + column];
+                if(alphas[index & 0xFF] != 0) {
+                    canvas[canvasIndex + column] = index;
+                }
+            }
+        }
+        frameIndex = frameIndex + 1;
+        return true;
+    }
+
+    private boolean isBlendedInIndexes(byte[] frameIndexes, int offset, int stride, int x, int y, int frameWidth, int frameHeight) {
+        for(int row = 0; row < frameHeight; row ++) {
+            int canvasIndex = (y + row) * width + x;
+            int indexIndex = offset + row * stride;
+            for(int column = 0; column < frameWidth; column ++) {
+                int alpha = alphas[frameIndexes[indexIndex + column] & 0xFF];
+                if(alpha != 0 && alpha != 0xFF && alphas[canvas[canvasIndex + column] & 0xFF] != 0) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Dispose the last frame now instead of with the next one.
+     */
+    public void disposeFrame() {
+        disposeRegion.dispose();
+    }
+
+    /**
+     * Look up the colour of every index, the clear index past the palette is transparent black.
+     *
+     * @param indexes a canvas of this compositor, possibly a copy of an earlier frame
+     * @param pixels receives the ARGB pixels, width by height
+     */
+    public void expand(byte[] indexes, int[] pixels) {
+        for(int i = 0; i < canvas.length; i++) {
+            pixels[i] = palette[indexes[i] & 0xFF];
+        }
+    }
+
+    /**
+     * @return the canvas, width by height, valid until the next compose or reset
+     */
+    public byte[] getCanvas() {
+        return canvas;
+    }
+
+    /**
+     * @return width of the canvas, the image width scaled by the sample size
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getSampleSize() {
+        return sampleSize;
+    }
+
+    /**
+     * @return index of the last composed frame, -1 after a reset
+     */
+    public int getFrameIndex() {
+        return frameIndex;
+    }
+}
@@ -0,0 +1,91 @@
+package com.shark.androidapng.apng.render;
+
+import com.shark.androidapng.apng.decoder.PngDecoder;
+import com.shark.androidapng.apng.entity.FctlChunkEntity;
+import com.shark.androidapng.apng.entity.FrameEntity;
+
+import java.util.List;
+
+/**
+ * How composited frames are kept in memory, picked by {@link #select(PngDecoder, List, int, int)}.
+ * Palette indexes are exact, RGB_565 is not: it drops the low bits of every colour, the way
+ * RGB_565 bitmaps do. Compact formats are expanded to ARGB or RGB_565 only when a frame is
+ * drawn.
+ */
+public enum PixelFormat {
+
+    /** an int per pixel, non premultiplied ARGB, see {@link ApngCompositor} */
+    ARGB_8888(4),
+    /** a short per pixel, for canvases never showing a transparent pixel, colours lose precision */
+    RGB_565(2),
+    /** a byte per pixel, palette indexes, see {@link IndexedCompositor} */
+    INDEXED_8(1);
+
+    private final int bytesPerPixel;
+
+    PixelFormat(int bytesPerPixel) {
+        this.bytesPerPixel = bytesPerPixel;
+    }
+
+    public int getBytesPerPixel() {
+        return bytesPerPixel;
+    }
+
+    /**
+     * Indexed images stay indexed unless the canvas is cleared and no index is left to clear it
+     * with. Other opaque animations take RGB_565, which halves the memory of their frames at the
+     * cost of colour precision, colours are not checked to fit 5 and 6 bits. They may still need ARGB once a frame blends colours missing from the palette, see
+     * {@link IndexedCompositor#compose(FctlChunkEntity, byte[], int, int)}.
+     */
+    public static PixelFormat select(PngDecoder decoder, List<FrameEntity> frameList, int width, int height) {
+        if(decoder.isIndexed() && (IndexedCompositor.findClearIndex(decoder.getPalette()) >= 0
+                || isCanvasCovered(frameList, width, height))) {
+            return INDEXED_8;
+        }
+        if(isCanvasOpaque(decoder, frameList, width, height)) {
+            return RGB_565;
+        }
+        return ARGB_8888;
+    }
+
+    /**
+     * @return whether no pixel of any composited frame is transparent, so it can be drawn
+     * without alpha
+     */
+    public static boolean isCanvasOpaque(PngDecoder decoder, List<FrameEntity> frameList, int width, int height) {
+        return decoder.isOpaque() && isCanvasCovered(frameList, width, height);
+    }
+
+    /**
+     * @return whether the empty canvas never shows: the first frame covers it and no frame is
+     * disposed to background before the last one, after which the animation starts over
+     */
+    static boolean isCanvasCovered(List<FrameEntity> frameList, int width, int height) {
+        if(frameList.isEmpty()) {
+            return false;
+        }
+        FctlChunkEntity firstFctlChunkEntity = frameList.get(0).getFrameControlChunk();
+        if(firstFctlChunkEntity.getxOffset() != 0 || firstFctlChunkEntity.getyOffset() != 0
+                || firstFctlChunkEntity.getWidth() < width || firstFctlChunkEntity.getHeight() < height) {
+            return false;
+        }
+        for(int i = 0; i < frameList.size() - 1; i++) {
+            int disposeOp = frameList.get(i).getFrameControlChunk().getDisposeOp();
+            // previous on the first frame means background
+            if(disposeOp == FctlChunkEntity.DISPOSE_OP_BACKGROUND || disposeOp == FctlChunkEntity.DISPOSE_OP_PREVIOUS && i == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Drop the alpha and the low bits of every colour, the way RGB_565 bitmaps store pixels.
+     */
+    public static void toRgb565(int[] pixels, short[] rgb565Pixels, int length) {
+        for(int i = 0; i < length; i++) {
+            int pixel = pixels[i];
+            rgb565Pixels[i] = (short) ((pixel >> 8 & 0xF800) | (pixel >> 5 & 0x07E0) | (pixel >> 3 & 0x001F));
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.shark.androidapng.apng.source;
+
+import java.io.Closeable;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Where the image bytes live. Chunks only keep offsets into {@link #getBuffer()}, so the
+ * source has to stay open as long as its parser is used.
+ */
+public interface ApngSource extends Closeable {
+
+    /**
+     * @return read-only view of the whole image, position and limit must not be relied on
+     */
+    ByteBuffer getBuffer();
+
+    int getLength();
+
+    /**
+     * @return a new stream over the whole image
+     */
+    InputStream openStream();
+}
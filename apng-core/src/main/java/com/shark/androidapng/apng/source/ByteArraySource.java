@@ -0,0 +1,42 @@
+package com.shark.androidapng.apng.source;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Image already read into the heap.
+ */
+public class ByteArraySource implements ApngSource {
+
+    private final byte[] bytes;
+    private final ByteBuffer buffer;
+
+    public ByteArraySource(byte[] bytes) {
+        this.bytes = bytes;
+        this.buffer = ByteBuffer.wrap(bytes).asReadOnlyBuffer();
+    }
+
+    public byte[] getBytes() {
+        return bytes;
+    }
+
+    @Override
+    public ByteBuffer getBuffer() {
+        return buffer;
+    }
+
+    @Override
+    public int getLength() {
+        return bytes.length;
+    }
+
+    @Override
+    public InputStream openStream() {
+        return new ByteArrayInputStream(bytes);
+    }
+
+    @Override
+    public void close() {
+    }
+}
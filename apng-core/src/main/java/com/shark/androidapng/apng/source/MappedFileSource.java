@@ -0,0 +1,73 @@
+package com.shark.androidapng.apng.source;
+
+import com.shark.androidapng.util.ByteBufferInputStream;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Image file mapped into memory, chunks are read straight from the page cache without a
+ * heap copy of the file.
+ */
+public class MappedFileSource implements ApngSource {
+
+    private final Closeable file;
+    private final MappedByteBuffer buffer;
+
+    public MappedFileSource(File file) throws IOException {
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+        this.file = randomAccessFile;
+        buffer = map(randomAccessFile.getChannel(), 0, randomAccessFile.length());
+    }
+
+    /**
+     * Map a part of a file, for example an uncompressed asset through
+     * AssetFileDescriptor.createInputStream(), getStartOffset() and getLength().
+     */
+    public MappedFileSource(FileInputStream inputStream, long offset, long length) throws IOException {
+        this.file = inputStream;
+        buffer = map(inputStream.getChannel(), offset, length);
+    }
+
+    private MappedByteBuffer map(FileChannel channel, long offset, long length) throws IOException {
+        try {
+            if(length > Integer.MAX_VALUE) {
+                throw new IOException("file too large to map: " + length);
+            }
+            return channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+        } catch (IOException e) {
+            file.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public ByteBuffer getBuffer() {
+        return buffer;
+    }
+
+    @Override
+    public int getLength() {
+        return buffer.capacity();
+    }
+
+    @Override
+    public InputStream openStream() {
+        return new ByteBufferInputStream(buffer);
+    }
+
+    /**
+     * The mapping itself stays valid until the buffer is garbage collected.
+     */
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+}
@@ -1,9 +1,14 @@
 package com.shark.androidapng.util;
 
+import java.nio.ByteBuffer;
+
 /**
  * Created by Shark0 on 2016/9/13.
  */
 public class ByteUtil {
+
+    private static final char[] HEX_CHARS = "0123456789abcdef".toCharArray();
+
     public static int indexOf(byte[] bytes1, byte[] bytes2) {
         for (int i = 0; i < bytes1.length - bytes2.length + 1; i++) {
             boolean found = true;
@@ -26,11 +31,44 @@ public class ByteUtil {
         return subBytes;
     }
 
+    public static byte[] subBytes(ByteBuffer buffer, int startIndex, int endIndex) {
+        byte[] subBytes = new byte[endIndex - startIndex];
+        copyBytes(buffer, startIndex, subBytes, 0, subBytes.length);
+        return subBytes;
+    }
+
+    /**
+     * Copy without touching the position of the given buffer, so one buffer can be shared.
+     */
+    public static void copyBytes(ByteBuffer buffer, int startIndex, byte[] bytes, int offset, int length) {
+        ByteBuffer duplicate = buffer.duplicate();
+        duplicate.position(startIndex);
+        duplicate.get(bytes, offset, length);
+    }
+
     public static String bytesToHex(byte[] bytes) {
-        StringBuilder stringBuilder = new StringBuilder(bytes.length * 2);
-        for(byte b: bytes) {
-            String hex = String.format("%02x", b & 0xff);
-            stringBuilder.append(hex);
+        char[] hexChars = new char[bytes.length * 2];
+        for(int i = 0; i < bytes.length; i ++) {
+            hexChars[i * 2] = HEX_CHARS[(bytes[i] >> 4) & 0xF];
+            hexChars[i * 2 + 1] = HEX_CHARS[bytes[i] & 0xF];
+        }
+        return new String(hexChars);
+    }
+
+    /**
+     * Hex of at most maxLength bytes read in place, for logs: a chunk may be megabytes.
+     *
+     * @return e.g. "89504e47... (1024 bytes)" when the bytes were cut
+     */
+    public static String toHexPreview(ByteBuffer buffer, int startIndex, int length, int maxLength) {
+        int previewLength = Math.min(length, maxLength);
+        StringBuilder stringBuilder = new StringBuilder(previewLength * 2 + 24);
+        for(int i = 0; i < previewLength; i ++) {
+            byte b = buffer.get(startIndex + i);
+            stringBuilder.append(HEX_CHARS[(b >> 4) & 0xF]).append(HEX_CHARS[b & 0xF]);
+        }
+        if(previewLength < length) {
+            stringBuilder.append("... (").append(length).append(" bytes)");
         }
         return stringBuilder.toString();
     }
@@ -0,0 +1,155 @@
+package com.shark.androidapng.util;
+
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+
+/**
+ * The crc32 of png chunks, computed with a precomputed table or combined from known crc
+ * without reading the bytes again.
+ *
+ * A crc is linear over the bits of the message, so the crc of X followed by Y is the crc of X
+ * run through len(Y) zero bytes, xor the crc of Y. Running a crc through n zero bytes is a
+ * 32 x 32 bit matrix, the matrices of every power of two are built once, see
+ * {@link #shift(int, long)}.
+ */
+public class CrcUtil {
+
+    private static final int POLYNOMIAL = 0xEDB88320;
+
+    private static final int[] TABLE = new int[256];
+
+    /** shorter runs are cheaper through the table than copied out for CRC32 */
+    private static final int BULK_MIN_LENGTH = 64;
+    private static final int SCRATCH_BYTES_LENGTH = 8 * 1024;
+
+    /** bytes of buffers without an accessible array are copied through it, one per thread */
+    private static final ThreadLocal<byte[]> SCRATCH_BYTES = new ThreadLocal<byte[]>() {
+        @Override
+        protected byte[] initialValue() {
+            return new byte[SCRATCH_BYTES_LENGTH];
+        }
+    };
+
+    /** ZERO_BYTES_OPERATORS[i] runs a crc through 2^i zero bytes */
+    private static final int[][] ZERO_BYTES_OPERATORS = new int[63][];
+
+    static {
+        for(int i = 0; i < TABLE.length; i ++) {
+            int crc = i;
+            for(int bit = 0; bit < 8; bit ++) {
+                crc = (crc & 1) != 0 ? crc >>> 1 ^ POLYNOMIAL : crc >>> 1;
+            }
+            TABLE[i] = crc;
+        }
+        // one zero bit, then squared up to one zero byte
+        int[] operator = new int[32];
+        operator[0] = POLYNOMIAL;
+        for(int i = 1; i < 32; i ++) {
+            operator[i] = 1 << (i - 1);
+        }
+        for(int i = 0; i < 3; i ++) {
+            operator = square(operator);
+        }
+        ZERO_BYTES_OPERATORS[0] = operator;
+        for(int i = 1; i < ZERO_BYTES_OPERATORS.length; i ++) {
+            ZERO_BYTES_OPERATORS[i] = square(ZERO_BYTES_OPERATORS[i - 1]);
+        }
+    }
+
+    public static int crc(byte[] bytes, int offset, int length) {
+        return update(0, bytes, offset, length);
+    }
+
+    /**
+     * @param crc crc of the bytes before, 0 for none
+     */
+    public static int update(int crc, byte[] bytes, int offset, int length) {
+        int register = ~crc;
+        for(int i = offset; i < offset + length; i ++) {
+            register = TABLE[(register ^ bytes[i]) & 0xFF] ^ register >>> 8;
+        }
+        return ~register;
+    }
+
+    /**
+     * Read without touching the position of the buffer, so one buffer can be shared. Long runs
+     * go through the intrinsic of the platform: straight from the array of a heap buffer, copied
+     * out in blocks from read-only and direct buffers, which the sources hand out.
+     */
+    public static int crc(ByteBuffer buffer, int offset, int length) {
+        if(buffer.hasArray()) {
+            CRC32 crc32 = new CRC32();
+            crc32.update(buffer.array(), buffer.arrayOffset() + offset, length);
+            return (int) crc32.getValue();
+        }
+        if(length >= BULK_MIN_LENGTH) {
+            CRC32 crc32 = new CRC32();
+            byte[] scratchBytes = SCRATCH_BYTES.get();
+            ByteBuffer duplicate = buffer.duplicate();
+            duplicate.position(offset);
+            int remaining = length;
+            while(remaining > 0) {
+                int blockLength = Math.min(remaining, scratchBytes.length);
+                duplicate.get(scratchBytes, 0, blockLength);
+                crc32.update(scratchBytes, 0, blockLength);
+                remaining = remaining - blockLength;
+            }
+            return (int) crc32.getValue();
+        }
+        int register = ~0;
+        for(int i = offset; i < offset + length; i ++) {
+            register = TABLE[(register ^ buffer.get(i)) & 0xFF] ^ register >>> 8;
+        }
+        return ~register;
+    }
+
+    /**
+     * @return the crc of X followed by Y
+     */
+    public static int combine(int crcX, int crcY, long lengthY) {
+        return shift(crcX, lengthY) ^ crcY;
+    }
+
+    /**
+     * @return the crc run through length zero bytes, at most 63 matrix products
+     */
+    public static int shift(int crc, long length) {
+        for(int i = 0; length != 0; i ++, length = length >>> 1) {
+            if((length & 1) != 0) {
+                crc = times(ZERO_BYTES_OPERATORS[i], crc);
+            }
+        }
+        return crc;
+    }
+
+    /**
+     * Crc of a chunk whose head bytes were replaced, the bytes after them unchanged.
+     *
+     * @param crc crc of headBytes followed by the tail
+     * @param headCrc crc of the head replaced
+     * @param newHeadCrc crc of the new head
+     * @param tailLength bytes after the head
+     */
+    public static int replaceHead(int crc, int headCrc, int newHeadCrc, long tailLength) {
+        // the tail crc is in both, it cancels out
+        return crc ^ shift(headCrc ^ newHeadCrc, tailLength);
+    }
+
+    private static int times(int[] operator, int vector) {
+        int product = 0;
+        for(int i = 0; vector != 0; i ++, vector = vector >>> 1) {
+            if((vector & 1) != 0) {
+                product = product ^ operator[i];
+            }
+        }
+        return product;
+    }
+
+    private static int[] square(int[] operator) {
+        int[] square = new int[32];
+        for(int i = 0; i < 32; i ++) {
+            square[i] = times(operator, operator[i]);
+        }
+        return square;
+    }
+}
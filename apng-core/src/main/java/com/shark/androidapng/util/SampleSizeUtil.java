@@ -0,0 +1,54 @@
+package com.shark.androidapng.util;
+
+/**
+ * Power of two subsampling, like the inSampleSize of BitmapFactory: a canvas sampled by n keeps
+ * every n-th pixel of every n-th row, starting with the first one, and is ceil(width / n) by
+ * ceil(height / n).
+ *
+ * A frame keeps the very same canvas pixels: its first column is the first one of the frame
+ * at a multiple of n on the canvas, not the first one of the frame. So the frames of an
+ * animation, each at its own fcTL offset, still line up once sampled.
+ */
+public class SampleSizeUtil {
+
+    /**
+     * @return the largest power of two keeping at least the target size, 1 when the image is
+     * smaller than the target
+     */
+    public static int forTargetSize(int width, int height, int targetWidth, int targetHeight) {
+        int sampleSize = 1;
+        while(sampleSize < (1 << 30) && width / (sampleSize * 2) >= targetWidth && height / (sampleSize * 2) >= targetHeight) {
+            sampleSize = sampleSize * 2;
+        }
+        return sampleSize;
+    }
+
+    public static void checkSampleSize(int sampleSize) {
+        if(sampleSize <= 0 || (sampleSize & (sampleSize - 1)) != 0) {
+            throw new IllegalArgumentException("sample size is not a power of two: " + sampleSize);
+        }
+    }
+
+    /**
+     * @return the sampled position of the first pixel kept at or after offset, negative for a
+     * negative offset
+     */
+    public static int scaleOffset(int offset, int sampleSize) {
+        // the arithmetic shift of the negated offset rounds up
+        return -(-offset >> Integer.numberOfTrailingZeros(sampleSize));
+    }
+
+    /**
+     * @return sampled pixels kept of length pixels starting at offset
+     */
+    public static int scaleLength(int offset, int length, int sampleSize) {
+        return scaleOffset(offset + length, sampleSize) - scaleOffset(offset, sampleSize);
+    }
+
+    /**
+     * @return the first pixel kept of length pixels starting at offset, relative to offset
+     */
+    public static int firstKept(int offset, int sampleSize) {
+        return scaleOffset(offset, sampleSize) * sampleSize - offset;
+    }
+}
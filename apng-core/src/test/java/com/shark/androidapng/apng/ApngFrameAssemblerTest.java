@@ -0,0 +1,82 @@
+package com.shark.androidapng.apng;
+
+import com.shark.androidapng.apng.entity.ChunkEntity;
+import com.shark.androidapng.apng.entity.IhdrChunkEntity;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+
+import static org.junit.Assert.*;
+
+public class ApngFrameAssemblerTest {
+
+    @Test
+    public void getFrameIhdrChunkEntity_resizedCopyPerSize() throws Exception {
+        ApngParser apngParser = new ApngParser(TestAssets.readBytes("elephant.png"));
+        ApngFrameAssembler frameAssembler = apngParser.getFrameAssembler();
+        IhdrChunkEntity ihdrChunkEntity = frameAssembler.getIhdrChunkEntity();
+        byte[] ihdrBytes = ihdrChunkEntity.getDataBytes();
+
+        assertSame(ihdrChunkEntity, frameAssembler.getFrameIhdrChunkEntity(480, 400));
+        ChunkEntity frameIhdrChunkEntity = frameAssembler.getFrameIhdrChunkEntity(17, 23);
+        assertSame(frameIhdrChunkEntity, frameAssembler.getFrameIhdrChunkEntity(17, 23));
+        byte[] dataBytes = frameIhdrChunkEntity.getDataBytes();
+        assertEquals(17, frameIhdrChunkEntity.getBuffer().getInt(frameIhdrChunkEntity.getDataOffset()));
+        assertEquals(23, frameIhdrChunkEntity.getBuffer().getInt(frameIhdrChunkEntity.getDataOffset() + 4));
+        for(int i = 8; i < dataBytes.length; i++) {
+            assertEquals(ihdrBytes[i], dataBytes[i]);
+        }
+        CRC32 crc32 = new CRC32();
+        crc32.update(frameIhdrChunkEntity.getTagBytes());
+        crc32.update(dataBytes);
+        assertEquals((int) crc32.getValue(), frameIhdrChunkEntity.getCrc());
+
+        // the parsed ihdr is never patched
+        assertEquals(480, ihdrChunkEntity.getWidth());
+        assertArrayEquals(ihdrBytes, ihdrChunkEntity.getDataBytes());
+    }
+
+    @Test
+    public void assemble_sameBytesFromSeveralThreads() throws Exception {
+        final ApngParser apngParser = new ApngParser(TestAssets.readBytes("elephant.png"));
+        final int frameCount = apngParser.getFrameList().size();
+        final List<byte[]> expectedList = new ArrayList<>();
+        ApngParser sequentialParser = new ApngParser(apngParser.getImageBytes());
+        for(int i = 0; i < frameCount; i++) {
+            expectedList.add(sequentialParser.getFrameAssembler().assemble(sequentialParser.getFrameList().get(i)));
+        }
+
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Void>> futureList = new ArrayList<>();
+            for(int thread = 0; thread < 4; thread++) {
+                final int startIndex = thread * 7;
+                futureList.add(executorService.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() {
+                        for(int loop = 0; loop < 5; loop++) {
+                            for(int i = 0; i < frameCount; i++) {
+                                int frameIndex = (startIndex + i) % frameCount;
+                                byte[] imageBytes = apngParser.getFrameAssembler().assemble(apngParser.getFrameList().get(frameIndex));
+                                assertArrayEquals("frame " + frameIndex, expectedList.get(frameIndex), imageBytes);
+                            }
+                        }
+                        return null;
+                    }
+                }));
+            }
+            for(Future<Void> future: futureList) {
+                future.get();
+            }
+        } finally {
+            executorService.shutdown();
+        }
+    }
+}
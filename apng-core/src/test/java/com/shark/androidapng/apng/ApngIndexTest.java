@@ -0,0 +1,156 @@
+package com.shark.androidapng.apng;
+
+import com.shark.androidapng.apng.entity.FctlChunkEntity;
+import com.shark.androidapng.apng.entity.FrameEntity;
+import com.shark.androidapng.apng.source.ByteArraySource;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+
+import static org.junit.Assert.*;
+
+public class ApngIndexTest {
+
+    private byte[] imageBytes;
+
+    @Before
+    public void setUp() throws Exception {
+        imageBytes = TestAssets.readBytes("bell.png");
+    }
+
+    @Test
+    public void reopen_sameFramesAsScan() throws Exception {
+        ApngParser scanParser = new ApngParser(imageBytes);
+        ApngIndex apngIndex = writeAndRead(scanParser.createIndex());
+        ApngParser indexParser = new ApngParser(new ByteArraySource(imageBytes), apngIndex);
+
+        assertTrue(indexParser.isApng());
+        assertEquals(scanParser.getContentHash(), indexParser.getContentHash());
+        assertEquals(scanParser.getWidth(), indexParser.getWidth());
+        assertEquals(scanParser.getHeight(), indexParser.getHeight());
+        assertEquals(scanParser.getActlChunkEntity().getPlayCount(), indexParser.getActlChunkEntity().getPlayCount());
+        assertEquals(scanParser.getFrameList().size(), indexParser.getFrameList().size());
+        for(int i = 0; i < scanParser.getFrameList().size(); i++) {
+            FrameEntity scanFrame = scanParser.getFrameList().get(i);
+            FrameEntity indexFrame = indexParser.getFrameList().get(i);
+            FctlChunkEntity scanFctl = scanFrame.getFrameControlChunk();
+            FctlChunkEntity indexFctl = indexFrame.getFrameControlChunk();
+            assertEquals(scanFctl.getSequenceNumber(), indexFctl.getSequenceNumber());
+            assertEquals(scanFctl.getxOffset(), indexFctl.getxOffset());
+            assertEquals(scanFctl.getyOffset(), indexFctl.getyOffset());
+            assertEquals(scanFctl.getDelayNumber(), indexFctl.getDelayNumber());
+            assertEquals(scanFctl.getDelayDen(), indexFctl.getDelayDen());
+            assertEquals(scanFctl.getDisposeOp(), indexFctl.getDisposeOp());
+            assertEquals(scanFctl.getBlendOp(), indexFctl.getBlendOp());
+            assertArrayEquals(scanParser.getFrameAssembler().assemble(scanFrame),
+                    indexParser.getFrameAssembler().assemble(indexFrame));
+        }
+    }
+
+    @Test
+    public void reopen_plainPng() throws Exception {
+        byte[] pngBytes = TestAssets.readBytes("bell0001.png");
+        ApngIndex apngIndex = writeAndRead(new ApngParser(pngBytes).createIndex());
+        assertFalse(apngIndex.isApng());
+        assertFalse(new ApngParser(new ByteArraySource(pngBytes), apngIndex).isApng());
+    }
+
+    @Test(expected = ApngFormatException.class)
+    public void reopen_otherImageFails() throws Exception {
+        ApngIndex apngIndex = new ApngParser(imageBytes).createIndex();
+        byte[] otherBytes = TestAssets.readBytes("elephant.png");
+        new ApngParser(new ByteArraySource(otherBytes), apngIndex);
+    }
+
+    @Test(expected = ApngFormatException.class)
+    public void reopen_changedImageFails() throws Exception {
+        ApngIndex apngIndex = new ApngParser(imageBytes).createIndex();
+        imageBytes[imageBytes.length - 14] ^= 1;
+        new ApngParser(new ByteArraySource(imageBytes), apngIndex);
+    }
+
+    @Test(expected = ApngFormatException.class)
+    public void read_notAnIndexFails() throws Exception {
+        ApngIndex.read(new ByteArrayInputStream(imageBytes));
+    }
+
+    @Test(expected = ApngFormatException.class)
+    public void read_chunkCountPastImageFails() throws Exception {
+        byte[] indexBytes = write(new ApngParser(imageBytes).createIndex());
+        // chunk count
+        putIntKeepingCrc(indexBytes, 25, Integer.MAX_VALUE);
+        ApngIndex.read(new ByteArrayInputStream(indexBytes));
+    }
+
+    @Test(expected = ApngFormatException.class)
+    public void read_chunkPastImageFails() throws Exception {
+        byte[] indexBytes = write(new ApngParser(imageBytes).createIndex());
+        // length of the second chunk
+        putIntKeepingCrc(indexBytes, 37 + 12 + 4, imageBytes.length);
+        ApngIndex.read(new ByteArrayInputStream(indexBytes));
+    }
+
+    @Test(expected = ApngFormatException.class)
+    public void read_emptyIhdrFails() throws Exception {
+        byte[] indexBytes = write(new ApngParser(imageBytes).createIndex());
+        // length of the ihdr
+        putIntKeepingCrc(indexBytes, 37 + 4, 0);
+        ApngIndex.read(new ByteArrayInputStream(indexBytes));
+    }
+
+    @Test(expected = ApngFormatException.class)
+    public void read_changedBodyFails() throws Exception {
+        ApngIndex apngIndex = new ApngParser(imageBytes).createIndex();
+        byte[] indexBytes = write(apngIndex);
+        // width of the first fcTL, after the chunk table
+        int fctlOffset = 37 + 12 * apngIndex.getChunkCount();
+        ByteBuffer.wrap(indexBytes).putInt(fctlOffset + 4, 1);
+        ApngIndex.read(new ByteArrayInputStream(indexBytes));
+    }
+
+    @Test
+    public void build_damagedIndexParsesImage() throws Exception {
+        byte[] indexBytes = write(new ApngParser(imageBytes).createIndex());
+        ByteBuffer.wrap(indexBytes).putInt(37 + 4, 0);
+        ApngParser apngParser = new ApngParser.Builder()
+                .build(new ByteArraySource(imageBytes), new ByteArrayInputStream(indexBytes));
+        assertEquals(new ApngParser(imageBytes).getFrameList().size(), apngParser.getFrameList().size());
+    }
+
+    @Test
+    public void build_otherImageIndexParsesImage() throws Exception {
+        byte[] otherBytes = TestAssets.readBytes("elephant.png");
+        byte[] indexBytes = write(new ApngParser(otherBytes).createIndex());
+        ApngParser apngParser = new ApngParser.Builder()
+                .build(new ByteArraySource(imageBytes), new ByteArrayInputStream(indexBytes));
+        assertEquals(new ApngParser(imageBytes).getContentHash(), apngParser.getContentHash());
+    }
+
+    /**
+     * Change the body of an index and write its crc again, so the other checks are reached.
+     */
+    private static void putIntKeepingCrc(byte[] indexBytes, int offset, int value) {
+        ByteBuffer indexBuffer = ByteBuffer.wrap(indexBytes);
+        indexBuffer.putInt(offset, value);
+        CRC32 crc32 = new CRC32();
+        // magic and version are not part of the body
+        crc32.update(indexBytes, 8, indexBytes.length - 8 - 4);
+        indexBuffer.putInt(indexBytes.length - 4, (int) crc32.getValue());
+    }
+
+    private static byte[] write(ApngIndex apngIndex) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        apngIndex.write(outputStream);
+        return outputStream.toByteArray();
+    }
+
+    private static ApngIndex writeAndRead(ApngIndex apngIndex) throws IOException {
+        return ApngIndex.read(new ByteArrayInputStream(write(apngIndex)));
+    }
+}
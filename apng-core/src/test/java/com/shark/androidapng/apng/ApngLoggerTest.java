@@ -0,0 +1,62 @@
+package com.shark.androidapng.apng;
+
+import com.shark.androidapng.util.ByteUtil;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ApngLoggerTest {
+
+    private static class RecordingLogger implements ApngLogger {
+        private final boolean traceEnabled;
+        private final List<String> messageList = new ArrayList<>();
+
+        RecordingLogger(boolean traceEnabled) {
+            this.traceEnabled = traceEnabled;
+        }
+
+        @Override
+        public boolean isTraceEnabled() {
+            return traceEnabled;
+        }
+
+        @Override
+        public void trace(String message) {
+            messageList.add(message);
+        }
+    }
+
+    @Test
+    public void build_traceOneBoundedMessagePerChunk() throws Exception {
+        byte[] imageBytes = TestAssets.readBytes("elephant.png");
+        RecordingLogger logger = new RecordingLogger(true);
+        ApngParser apngParser = new ApngParser.Builder().setLogger(logger).build(imageBytes);
+        assertEquals(apngParser.createIndex().getChunkCount(), logger.messageList.size());
+        for(String message: logger.messageList) {
+            assertTrue(message, message.length() < 200);
+        }
+        assertTrue(logger.messageList.get(0).startsWith("chunk 0: IHDR"));
+    }
+
+    @Test
+    public void build_disabledTraceIsNeverCalled() throws Exception {
+        byte[] imageBytes = TestAssets.readBytes("bell.png");
+        RecordingLogger logger = new RecordingLogger(false);
+        ApngParser apngParser = new ApngParser.Builder().setLogger(logger).build(imageBytes);
+        assertEquals(40, apngParser.getFrameList().size());
+        assertTrue(logger.messageList.isEmpty());
+    }
+
+    @Test
+    public void hex_fullAndPreview() {
+        byte[] bytes = new byte[]{(byte) 0x89, 0x50, 0x0A, (byte) 0xFF, 0x00};
+        assertEquals("89500aff00", ByteUtil.bytesToHex(bytes));
+        assertEquals("89500aff00", ByteUtil.toHexPreview(ByteBuffer.wrap(bytes), 0, 5, 8));
+        assertEquals("500a... (4 bytes)", ByteUtil.toHexPreview(ByteBuffer.wrap(bytes), 1, 4, 2));
+    }
+}
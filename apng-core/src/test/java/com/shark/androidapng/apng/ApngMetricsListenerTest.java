@@ -0,0 +1,92 @@
+package com.shark.androidapng.apng;
+
+import com.shark.androidapng.apng.decoder.PngDecoder;
+import com.shark.androidapng.apng.entity.FctlChunkEntity;
+import com.shark.androidapng.apng.entity.FrameEntity;
+import com.shark.androidapng.apng.source.ByteArraySource;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class ApngMetricsListenerTest {
+
+    private static class RecordingListener extends ApngMetricsListener {
+        private long bytesScanned;
+        private Map<String, Integer> chunkCounts;
+        private final List<Integer> assembledBytesList = new ArrayList<>();
+        private final List<Integer> rewrittenBytesList = new ArrayList<>();
+        private final List<FctlChunkEntity> decodedFctlList = new ArrayList<>();
+        private int decodedAllocatedBytes;
+
+        @Override
+        public void onImageParsed(long contentHash, long bytesScanned, Map<String, Integer> chunkCounts, long parseNanos) {
+            assertTrue(parseNanos >= 0);
+            this.bytesScanned = bytesScanned;
+            this.chunkCounts = chunkCounts;
+        }
+
+        @Override
+        public void onFrameAssembled(FctlChunkEntity fctlChunkEntity, int allocatedBytes, long nanos) {
+            assembledBytesList.add(allocatedBytes);
+        }
+
+        @Override
+        public void onFdatRewritten(FctlChunkEntity fctlChunkEntity, int bytes, long nanos) {
+            rewrittenBytesList.add(bytes);
+        }
+
+        @Override
+        public void onFrameDecoded(FctlChunkEntity fctlChunkEntity, int allocatedBytes, long nanos) {
+            decodedFctlList.add(fctlChunkEntity);
+            decodedAllocatedBytes = decodedAllocatedBytes + allocatedBytes;
+        }
+    }
+
+    @Test
+    public void build_reportsParseAssembleAndDecode() throws Exception {
+        byte[] imageBytes = TestAssets.readBytes("bell.png");
+        RecordingListener listener = new RecordingListener();
+        ApngParser apngParser = new ApngParser.Builder().setMetricsListener(listener).build(imageBytes);
+        List<FrameEntity> frameList = apngParser.getFrameList();
+
+        assertEquals(imageBytes.length, listener.bytesScanned);
+        assertEquals(40, (int) listener.chunkCounts.get(ApngParser.FCTL_TAG));
+        assertEquals(1, (int) listener.chunkCounts.get(ApngParser.IHDR_TAG));
+        assertEquals(frameList.size(), listener.chunkCounts.get(ApngParser.FCTL_TAG).intValue());
+
+        for(int loop = 0; loop < 2; loop++) {
+            for(FrameEntity frameEntity: frameList) {
+                apngParser.getFrameAssembler().assemble(frameEntity);
+            }
+        }
+        assertEquals(frameList.size() * 2, listener.assembledBytesList.size());
+        // every fdAT frame is rewritten once, the first frame is an IDAT
+        assertEquals(frameList.size() - 1, listener.rewrittenBytesList.size());
+        assertTrue(listener.assembledBytesList.get(1) > listener.assembledBytesList.get(frameList.size() + 1));
+
+        PngDecoder decoder = apngParser.createDecoder();
+        int[] pixels = new int[apngParser.getWidth() * apngParser.getHeight()];
+        for(FrameEntity frameEntity: frameList) {
+            decoder.decode(frameEntity, pixels, 0, apngParser.getWidth());
+        }
+        decoder.release();
+        assertEquals(frameList.size(), listener.decodedFctlList.size());
+        assertSame(frameList.get(3).getFrameControlChunk(), listener.decodedFctlList.get(3));
+        assertTrue(listener.decodedAllocatedBytes > 0);
+    }
+
+    @Test
+    public void build_indexReportsChunkCounts() throws Exception {
+        byte[] imageBytes = TestAssets.readBytes("elephant.png");
+        ApngIndex apngIndex = new ApngParser(imageBytes).createIndex();
+        RecordingListener listener = new RecordingListener();
+        new ApngParser.Builder().setMetricsListener(listener).build(new ByteArraySource(imageBytes), apngIndex);
+        assertEquals(34, (int) listener.chunkCounts.get(ApngParser.FCTL_TAG));
+        assertTrue(listener.bytesScanned < imageBytes.length);
+    }
+}
@@ -0,0 +1,119 @@
+package com.shark.androidapng.apng;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class ApngParserTest {
+
+    @Test(timeout = 5000)
+    public void parse_negativeChunkLengthThrows() throws Exception {
+        byte[] imageBytes = read("bell.png");
+        ByteBuffer.wrap(imageBytes).putInt(chunkAfterActl(imageBytes), -12);
+        try {
+            new ApngParser(imageBytes);
+            fail();
+        } catch (ApngFormatException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void parse_chunkPastEndThrows() throws Exception {
+        byte[] imageBytes = read("bell.png");
+        ByteBuffer.wrap(imageBytes).putInt(chunkAfterActl(imageBytes), imageBytes.length);
+        try {
+            new ApngParser(imageBytes);
+            fail();
+        } catch (ApngFormatException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void findActlOffset_truncatedImageIsNotAnimated() throws Exception {
+        byte[] imageBytes = read("bell.png");
+        int actlOffset = ApngParser.findActlOffset(ByteBuffer.wrap(imageBytes));
+        assertEquals(-1, ApngParser.findActlOffset(ByteBuffer.wrap(Arrays.copyOf(imageBytes, actlOffset - 1))));
+    }
+
+    @Test
+    public void streamParser_negativeChunkLengthThrows() throws Exception {
+        byte[] imageBytes = read("bell.png");
+        ByteBuffer.wrap(imageBytes).putInt(chunkAfterActl(imageBytes), -12);
+        ApngStreamParser streamParser = new ApngStreamParser(new ByteArrayInputStream(imageBytes));
+        try {
+            while(streamParser.next() != ApngStreamParser.END_IMAGE) {
+                // read every chunk
+            }
+            fail();
+        } catch (ApngFormatException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void parse_frameOutsideCanvasThrows() throws Exception {
+        byte[] imageBytes = read("bell.png");
+        int canvasWidth = new ApngParser(imageBytes).getWidth();
+        // x offset of the first fcTL
+        ByteBuffer.wrap(imageBytes).putInt(firstFctl(imageBytes) + 8 + 12, canvasWidth);
+        try {
+            new ApngParser(imageBytes);
+            fail();
+        } catch (ApngFormatException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void streamParser_emptyFrameThrows() throws Exception {
+        byte[] imageBytes = read("bell.png");
+        // height of the first fcTL
+        ByteBuffer.wrap(imageBytes).putInt(firstFctl(imageBytes) + 8 + 8, 0);
+        ApngStreamParser streamParser = new ApngStreamParser(new ByteArrayInputStream(imageBytes));
+        try {
+            while(streamParser.next() != ApngStreamParser.END_IMAGE) {
+                // read every chunk
+            }
+            fail();
+        } catch (ApngFormatException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void createDecoder_plainPngThrows() throws Exception {
+        ApngParser apngParser = new ApngParser(read("bell0001.png"));
+        assertFalse(apngParser.isApng());
+        try {
+            apngParser.createDecoder();
+            fail();
+        } catch (ApngFormatException e) {
+            assertEquals("not an animated PNG", e.getMessage());
+        }
+    }
+
+    private static int firstFctl(byte[] imageBytes) {
+        ByteBuffer imageBuffer = ByteBuffer.wrap(imageBytes);
+        int offset = ApngParser.PNG_TAG_BYTES.length;
+        while(imageBuffer.getInt(offset + 4) != ByteBuffer.wrap(ApngParser.FCTL_TAG_BYTES).getInt()) {
+            offset = offset + 12 + imageBuffer.getInt(offset);
+        }
+        return offset;
+    }
+
+    private static int chunkAfterActl(byte[] imageBytes) {
+        int actlOffset = ApngParser.findActlOffset(ByteBuffer.wrap(imageBytes));
+        return actlOffset + 12 + ByteBuffer.wrap(imageBytes).getInt(actlOffset);
+    }
+
+    private static byte[] read(String fileName) throws IOException {
+        return TestAssets.readBytes(fileName);
+    }
+}
@@ -0,0 +1,103 @@
+package com.shark.androidapng.apng;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class ApngProbeTest {
+
+    @Test
+    public void findActlOffset_apngAndPlainPng() throws Exception {
+        byte[] apngBytes = read("bell.png");
+        int actlOffset = ApngParser.findActlOffset(ByteBuffer.wrap(apngBytes));
+        assertTrue(actlOffset > 0);
+        assertEquals("acTL", new String(apngBytes, actlOffset + 4, 4, StandardCharsets.US_ASCII));
+        assertEquals(-1, ApngParser.findActlOffset(ByteBuffer.wrap(read("bell0001.png"))));
+        assertEquals(-1, ApngParser.findActlOffset(ByteBuffer.wrap(new byte[]{1, 2, 3})));
+    }
+
+    @Test
+    public void findActlOffset_actlBytesAfterImageDataAreIgnored() throws Exception {
+        byte[] imageBytes = plainPngWithActlInData();
+        assertEquals(-1, ApngParser.findActlOffset(ByteBuffer.wrap(imageBytes)));
+        assertFalse(ApngParser.probe(new ByteArrayInputStream(imageBytes)));
+        assertFalse(new ApngParser(imageBytes).isApng());
+    }
+
+    @Test
+    public void probe_readsOnlyChunksBeforeImageData() throws Exception {
+        byte[] apngBytes = read("elephant.png");
+        CountingInputStream inputStream = new CountingInputStream(new ByteArrayInputStream(apngBytes));
+        assertTrue(ApngParser.probe(inputStream));
+        int actlOffset = ApngParser.findActlOffset(ByteBuffer.wrap(apngBytes));
+        assertEquals(actlOffset + 8, inputStream.position);
+
+        assertFalse(ApngParser.probe(new ByteArrayInputStream(read("bell0001.png"))));
+        assertFalse(ApngParser.probe(new ByteArrayInputStream(Arrays.copyOf(apngBytes, 20))));
+        assertFalse(ApngParser.probe(new ByteArrayInputStream("GIF89a and more bytes".getBytes(StandardCharsets.US_ASCII))));
+    }
+
+    private static byte[] read(String fileName) throws IOException {
+        return TestAssets.readBytes(fileName);
+    }
+
+    /**
+     * The chunks of a plain png with an extra chunk after the image data holding "acTL".
+     */
+    private static byte[] plainPngWithActlInData() throws IOException {
+        byte[] imageBytes = read("bell0001.png");
+        int iendOffset = imageBytes.length - 12;
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        outputStream.write(imageBytes, 0, iendOffset);
+        DataOutputStream dataOutputStream = new DataOutputStream(outputStream);
+        dataOutputStream.writeInt(8);
+        dataOutputStream.write("teXt".getBytes(StandardCharsets.US_ASCII));
+        dataOutputStream.write("xxacTLxx".getBytes(StandardCharsets.US_ASCII));
+        dataOutputStream.writeInt(0);
+        outputStream.write(imageBytes, iendOffset, 12);
+        return outputStream.toByteArray();
+    }
+
+    private static class CountingInputStream extends InputStream {
+        private final InputStream inputStream;
+        private long position;
+
+        CountingInputStream(InputStream inputStream) {
+            this.inputStream = inputStream;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int value = inputStream.read();
+            if(value != -1) {
+                position = position + 1;
+            }
+            return value;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            int count = inputStream.read(bytes, offset, length);
+            if(count > 0) {
+                position = position + count;
+            }
+            return count;
+        }
+
+        @Override
+        public long skip(long length) throws IOException {
+            long skipped = inputStream.skip(length);
+            position = position + skipped;
+            return skipped;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.shark.androidapng.apng;
+
+import com.shark.androidapng.apng.entity.ChunkEntity;
+import com.shark.androidapng.apng.entity.FdatChunkEntity;
+import com.shark.androidapng.apng.entity.FrameEntity;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+
+import static org.junit.Assert.*;
+
+public class CrcVerifyModeTest {
+
+    @Test
+    public void getIdatCrc_sameAsComputedCrc() throws Exception {
+        ApngParser apngParser = new ApngParser(read("elephant.png"));
+        int fdatCount = 0;
+        for(FrameEntity frameEntity: apngParser.getFrameList()) {
+            ChunkEntity rawChunkEntity = frameEntity.getRawFrameDataChunk();
+            ChunkEntity idatChunkEntity = frameEntity.getFrameDataChunk();
+            assertTrue(idatChunkEntity.isCrcValid());
+            if(rawChunkEntity instanceof FdatChunkEntity) {
+                assertEquals(idatChunkEntity.computeCrc(), ((FdatChunkEntity) rawChunkEntity).getIdatCrc());
+                fdatCount = fdatCount + 1;
+            }
+        }
+        assertTrue(fdatCount > 0);
+    }
+
+    @Test
+    public void build_headersModeFindsCorruptHeader() throws Exception {
+        byte[] imageBytes = read("bell.png");
+        ApngParser apngParser = new ApngParser(imageBytes);
+        new ApngParser.Builder().setCrcVerifyMode(CrcVerifyMode.FULL).build(imageBytes);
+
+        int fctlOffset = apngParser.getFrameTable().getFctlOffset(3);
+        imageBytes[fctlOffset + 8 + 20] ^= 1;
+        new ApngParser.Builder().setCrcVerifyMode(CrcVerifyMode.OFF).build(imageBytes);
+        assertCorrupt(imageBytes, CrcVerifyMode.HEADERS);
+    }
+
+    @Test
+    public void build_fullModeFindsCorruptData() throws Exception {
+        byte[] imageBytes = read("bell.png");
+        FrameTable frameTable = new ApngParser(imageBytes).getFrameTable();
+        imageBytes[frameTable.getDataOffset(5) + 8 + frameTable.getDataLength(5) / 2] ^= 1;
+        new ApngParser.Builder().setCrcVerifyMode(CrcVerifyMode.HEADERS).build(imageBytes);
+        assertCorrupt(imageBytes, CrcVerifyMode.FULL);
+    }
+
+    private static void assertCorrupt(byte[] imageBytes, CrcVerifyMode crcVerifyMode) throws Exception {
+        try {
+            new ApngParser.Builder().setCrcVerifyMode(crcVerifyMode).build(imageBytes);
+            fail();
+        } catch (ApngFormatException e) {
+            // expected
+        }
+        ApngStreamParser streamParser = new ApngStreamParser(new ByteArrayInputStream(imageBytes));
+        streamParser.setCrcVerifyMode(crcVerifyMode);
+        try {
+            while(streamParser.next() != ApngStreamParser.END_IMAGE) {
+                // read every chunk
+            }
+            fail();
+        } catch (ApngFormatException e) {
+            // expected
+        }
+    }
+
+    private static byte[] read(String fileName) throws Exception {
+        return TestAssets.readBytes(fileName);
+    }
+}
@@ -0,0 +1,80 @@
+package com.shark.androidapng.apng;
+
+import com.shark.androidapng.apng.entity.ChunkEntity;
+import com.shark.androidapng.apng.entity.FctlChunkEntity;
+import com.shark.androidapng.apng.entity.FrameEntity;
+import com.shark.androidapng.apng.source.MappedFileSource;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class FrameTableTest {
+
+    @Test
+    public void parser_tableMatchesFrameList() throws Exception {
+        MappedFileSource source = new MappedFileSource(TestAssets.copyToFile("bell.png"));
+        try {
+            ApngParser apngParser = new ApngParser(source);
+            List<FrameEntity> frameList = apngParser.getFrameList();
+            FrameTable frameTable = apngParser.getFrameTable();
+            assertEquals(frameList.size(), frameTable.getFrameCount());
+            for(int i = 0; i < frameList.size(); i++) {
+                FctlChunkEntity fctlChunkEntity = frameList.get(i).getFrameControlChunk();
+                ChunkEntity dataChunkEntity = frameList.get(i).getRawFrameDataChunk();
+                assertEquals(fctlChunkEntity.getOffset(), frameTable.getFctlOffset(i));
+                assertEquals(dataChunkEntity.getOffset(), frameTable.getDataOffset(i));
+                assertEquals(dataChunkEntity.getLength(), frameTable.getDataLength(i));
+                assertEquals(fctlChunkEntity.getSequenceNumber(), frameTable.getSequenceNumber(i));
+                assertEquals(fctlChunkEntity.getWidth(), frameTable.getWidth(i));
+                assertEquals(fctlChunkEntity.getHeight(), frameTable.getHeight(i));
+                assertEquals(fctlChunkEntity.getxOffset(), frameTable.getxOffset(i));
+                assertEquals(fctlChunkEntity.getyOffset(), frameTable.getyOffset(i));
+                assertEquals(fctlChunkEntity.getDelayNumber() & 0xFFFF, frameTable.getDelayNumber(i));
+                assertEquals(fctlChunkEntity.getDelayDen() & 0xFFFF, frameTable.getDelayDen(i));
+                assertEquals(fctlChunkEntity.getDisposeOp(), frameTable.getDisposeOp(i));
+                assertEquals(fctlChunkEntity.getBlendOp(), frameTable.getBlendOp(i));
+            }
+        } finally {
+            source.close();
+        }
+    }
+
+    @Test
+    public void add_growsPastCapacity() {
+        FrameTable frameTable = new FrameTable(1);
+        for(int i = 0; i < 5; i++) {
+            FctlChunkEntity fctlChunkEntity = new FctlChunkEntity();
+            fctlChunkEntity.setWidth(i + 1);
+            fctlChunkEntity.setDelayNumber(0xFFFF);
+            ChunkEntity dataChunkEntity = new ChunkEntity();
+            dataChunkEntity.setLength(i * 10);
+            frameTable.add(i * 100, i * 2, fctlChunkEntity, i * 2 + 1, dataChunkEntity);
+        }
+        assertEquals(5, frameTable.getFrameCount());
+        assertEquals(5, frameTable.getWidth(4));
+        assertEquals(400, frameTable.getFctlOffset(4));
+        assertEquals(40, frameTable.getDataLength(4));
+        assertEquals(0xFFFF, frameTable.getDelayNumber(4));
+        assertEquals(9, frameTable.getDataChunkIndex(4));
+    }
+
+    @Test
+    public void frameList_buildsEachFrameOnce() throws Exception {
+        MappedFileSource source = new MappedFileSource(TestAssets.copyToFile("bell.png"));
+        try {
+            List<FrameEntity> frameList = new ApngParser(source).getFrameList();
+            assertSame(frameList.get(1), frameList.get(1));
+            assertNotSame(frameList.get(0), frameList.get(1));
+        } finally {
+            source.close();
+        }
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void get_pastFrameCountFails() {
+        new FrameTable(4).getWidth(0);
+    }
+}
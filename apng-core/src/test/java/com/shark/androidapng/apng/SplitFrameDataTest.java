@@ -0,0 +1,148 @@
+package com.shark.androidapng.apng;
+
+import com.shark.androidapng.apng.decoder.PngDecoder;
+import com.shark.androidapng.apng.entity.FctlChunkEntity;
+import com.shark.androidapng.apng.entity.FrameEntity;
+
+import org.junit.Test;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import javax.imageio.ImageIO;
+
+import static org.junit.Assert.*;
+
+/**
+ * The same images with the data of every frame split over several IDAT or fdAT chunks, as
+ * encoders write large frames, have to give the same frames.
+ */
+public class SplitFrameDataTest {
+
+    private static final int SEGMENT_COUNT = 3;
+
+    @Test
+    public void parse_splitFramesMatchOriginal() throws Exception {
+        for(String fileName: new String[]{"bell.png", "elephant.png"}) {
+            byte[] imageBytes = TestAssets.readBytes(fileName);
+            ApngParser apngParser = new ApngParser(imageBytes);
+            ApngParser splitParser = new ApngParser(split(imageBytes));
+            assertEquals(apngParser.getFrameList().size(), splitParser.getFrameList().size());
+
+            FrameTable frameTable = splitParser.getFrameTable();
+            for(int i = 0; i < frameTable.getFrameCount(); i++) {
+                assertEquals(SEGMENT_COUNT, frameTable.getDataSegmentCount(i));
+                assertEquals(SEGMENT_COUNT, splitParser.getFrameList().get(i).getRawFrameDataChunkList().size());
+            }
+            assertFramesEqual(apngParser, apngParser.getFrameList(), splitParser, splitParser.getFrameList());
+        }
+    }
+
+    @Test
+    public void streamParse_splitFramesMatchOriginal() throws Exception {
+        for(String fileName: new String[]{"bell.png", "elephant.png"}) {
+            byte[] imageBytes = TestAssets.readBytes(fileName);
+            ApngParser apngParser = new ApngParser(imageBytes);
+            ApngStreamParser streamParser = new ApngStreamParser(new ByteArrayInputStream(split(imageBytes)));
+            List<FrameEntity> frameList = new ArrayList<>();
+            while(streamParser.next() != ApngStreamParser.END_IMAGE) {
+                if(streamParser.getEventType() == ApngStreamParser.FRAME) {
+                    assertEquals(frameList.size(), streamParser.getFrameIndex());
+                    frameList.add(streamParser.getFrameEntity());
+                }
+            }
+            streamParser.close();
+            assertEquals(apngParser.getFrameList().size(), frameList.size());
+            assertFramesEqual(apngParser, apngParser.getFrameList(), streamParser, frameList);
+        }
+    }
+
+    private static void assertFramesEqual(ApngParser apngParser, List<FrameEntity> frameList,
+                                          Object splitParser, List<FrameEntity> splitFrameList) throws Exception {
+        PngDecoder decoder = apngParser.createDecoder();
+        ApngFrameAssembler splitAssembler = splitParser instanceof ApngParser
+                ? ((ApngParser) splitParser).getFrameAssembler() : ((ApngStreamParser) splitParser).getFrameAssembler();
+        for(int i = 0; i < frameList.size(); i++) {
+            FctlChunkEntity fctlChunkEntity = frameList.get(i).getFrameControlChunk();
+            int width = fctlChunkEntity.getWidth();
+            int height = fctlChunkEntity.getHeight();
+            int[] pixels = new int[width * height];
+            int[] splitPixels = new int[width * height];
+            decoder.decode(frameList.get(i), pixels, 0, width);
+            decoder.decode(splitFrameList.get(i), splitPixels, 0, width);
+            assertArrayEquals("frame " + i, pixels, splitPixels);
+
+            BufferedImage image = ImageIO.read(new ByteArrayInputStream(splitAssembler.assemble(splitFrameList.get(i))));
+            assertArrayEquals("frame " + i, pixels, image.getRGB(0, 0, width, height, null, 0, width));
+        }
+        decoder.release();
+    }
+
+    /**
+     * @return the image with every IDAT and fdAT split into {@link #SEGMENT_COUNT} chunks, the
+     * fcTL and fdAT sequence numbers written again
+     */
+    private static byte[] split(byte[] imageBytes) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        DataOutputStream dataOutputStream = new DataOutputStream(outputStream);
+        dataOutputStream.write(imageBytes, 0, ApngParser.PNG_TAG_BYTES.length);
+        ByteBuffer buffer = ByteBuffer.wrap(imageBytes);
+        int offset = ApngParser.PNG_TAG_BYTES.length;
+        int sequenceNumber = 0;
+        while(offset < imageBytes.length) {
+            int length = buffer.getInt(offset);
+            String tag = new String(imageBytes, offset + 4, 4, StandardCharsets.US_ASCII);
+            byte[] data = Arrays.copyOfRange(imageBytes, offset + 8, offset + 8 + length);
+            offset = offset + length + 12;
+            switch (tag) {
+                case ApngParser.FCTL_TAG:
+                    ByteBuffer.wrap(data).putInt(0, sequenceNumber++);
+                    writeChunk(dataOutputStream, tag, data);
+                    break;
+                case ApngParser.IDAT_TAG:
+                    for(int i = 0; i < SEGMENT_COUNT; i++) {
+                        writeChunk(dataOutputStream, tag, segment(data, 0, i));
+                    }
+                    break;
+                case ApngParser.FDAT_TAG:
+                    for(int i = 0; i < SEGMENT_COUNT; i++) {
+                        byte[] segment = segment(data, 4, i);
+                        byte[] fdatData = new byte[segment.length + 4];
+                        ByteBuffer.wrap(fdatData).putInt(sequenceNumber++);
+                        System.arraycopy(segment, 0, fdatData, 4, segment.length);
+                        writeChunk(dataOutputStream, tag, fdatData);
+                    }
+                    break;
+                default:
+                    writeChunk(dataOutputStream, tag, data);
+                    break;
+            }
+        }
+        return outputStream.toByteArray();
+    }
+
+    private static byte[] segment(byte[] data, int start, int index) {
+        int length = data.length - start;
+        return Arrays.copyOfRange(data, start + length * index / SEGMENT_COUNT, start + length * (index + 1) / SEGMENT_COUNT);
+    }
+
+    private static void writeChunk(DataOutputStream outputStream, String tag, byte[] data) throws IOException {
+        byte[] tagBytes = tag.getBytes(StandardCharsets.US_ASCII);
+        CRC32 crc32 = new CRC32();
+        crc32.update(tagBytes);
+        crc32.update(data);
+        outputStream.writeInt(data.length);
+        outputStream.write(tagBytes);
+        outputStream.write(data);
+        outputStream.writeInt((int) crc32.getValue());
+    }
+}
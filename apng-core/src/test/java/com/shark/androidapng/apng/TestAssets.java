@@ -0,0 +1,57 @@
+package com.shark.androidapng.apng;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * The test images, copies of the app assets in src/test/resources, read from the classpath so
+ * the tests do not depend on the working directory.
+ */
+public final class TestAssets {
+
+    private TestAssets() {
+    }
+
+    public static InputStream open(String fileName) throws IOException {
+        InputStream inputStream = TestAssets.class.getResourceAsStream("/" + fileName);
+        if(inputStream == null) {
+            throw new FileNotFoundException(fileName);
+        }
+        return inputStream;
+    }
+
+    public static byte[] readBytes(String fileName) throws IOException {
+        InputStream inputStream = open(fileName);
+        try {
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int readLength;
+            while((readLength = inputStream.read(buffer)) != -1) {
+                outputStream.write(buffer, 0, readLength);
+            }
+            return outputStream.toByteArray();
+        } finally {
+            inputStream.close();
+        }
+    }
+
+    /**
+     * @return a temporary file with the image, for the sources which map a file
+     */
+    public static File copyToFile(String fileName) throws IOException {
+        File file = File.createTempFile("apng", ".png");
+        file.deleteOnExit();
+        InputStream inputStream = open(fileName);
+        try {
+            Files.copy(inputStream, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            inputStream.close();
+        }
+        return file;
+    }
+}
@@ -0,0 +1,106 @@
+package com.shark.androidapng.apng.cache;
+
+import com.shark.androidapng.apng.ApngParser;
+import com.shark.androidapng.apng.TestAssets;
+import com.shark.androidapng.apng.source.ByteArraySource;
+import com.shark.androidapng.apng.source.MappedFileSource;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+/**
+ * Frames of 10 pixels are 40 bytes.
+ */
+public class FrameCacheTest {
+
+    private FrameCache frameCache;
+
+    @Before
+    public void setUp() {
+        frameCache = new FrameCache(100);
+    }
+
+    @Test
+    public void get_keyedByContentHashAndFrameIndex() {
+        int[] pixels = new int[10];
+        frameCache.put(1, 0, pixels);
+        assertSame(pixels, frameCache.get(1, 0));
+        assertSame(pixels, frameCache.get(1, 0));
+        assertNull(frameCache.get(1, 1));
+        assertNull(frameCache.get(2, 0));
+        assertEquals(2, frameCache.getHitCount());
+        assertEquals(2, frameCache.getMissCount());
+    }
+
+    @Test
+    public void put_evictsLeastRecentlyUsed() {
+        frameCache.put(1, 0, new int[10]);
+        frameCache.put(1, 1, new int[10]);
+        frameCache.get(1, 0);
+        frameCache.put(1, 2, new int[10]);
+        assertEquals(1, frameCache.getEvictionCount());
+        assertEquals(80, frameCache.getCurrentBytes());
+        assertNotNull(frameCache.get(1, 0));
+        assertNull(frameCache.get(1, 1));
+        assertNotNull(frameCache.get(1, 2));
+    }
+
+    @Test
+    public void put_replacesFrame() {
+        frameCache.put(1, 0, new int[10]);
+        frameCache.put(1, 0, new int[5]);
+        assertEquals(20, frameCache.getCurrentBytes());
+        assertEquals(1, frameCache.getCount());
+    }
+
+    @Test
+    public void remove_dropsFramesOfOneImage() {
+        frameCache.put(1, 0, new int[5]);
+        frameCache.put(2, 0, new int[5]);
+        frameCache.put(1, 1, new int[5]);
+        frameCache.remove(1);
+        assertEquals(1, frameCache.getCount());
+        assertEquals(20, frameCache.getCurrentBytes());
+        assertNotNull(frameCache.get(2, 0));
+    }
+
+    @Test
+    public void isCacheable_wholeAnimationFitsQuarterOfBudget() {
+        frameCache = new FrameCache(4 * 72 * 72 * 4 * 40);
+        assertTrue(frameCache.isCacheable(72, 72, 40));
+        assertFalse(frameCache.isCacheable(72, 72, 41));
+        assertFalse(frameCache.isCacheable(480, 400, 2));
+        assertFalse(frameCache.isCacheable(72, 72, 0));
+    }
+
+    @Test
+    public void contentHash_sameForSameImage() throws IOException {
+        byte[] imageBytes = TestAssets.readBytes("bell.png");
+        MappedFileSource source = new MappedFileSource(TestAssets.copyToFile("bell.png"));
+        try {
+            long contentHash = new ApngParser(source).getContentHash();
+            assertEquals(contentHash, new ApngParser(new ByteArraySource(imageBytes)).getContentHash());
+            imageBytes[imageBytes.length - 14] ^= 1;
+            // crc of the last frame data chunk
+            assertNotEquals(contentHash, new ApngParser(new ByteArraySource(imageBytes)).getContentHash());
+        } finally {
+            source.close();
+        }
+    }
+
+    @Test
+    public void put_countsCompactFormatsAtTheirSize() {
+        frameCache.put(1, 0, new short[10]);
+        frameCache.put(1, 1, new byte[10]);
+        assertEquals(30, frameCache.getCurrentBytes());
+        assertNotNull(frameCache.getRgb565(1, 0));
+        assertNull(frameCache.get(1, 0));
+        assertNotNull(frameCache.getIndexes(1, 1));
+        assertTrue(frameCache.isCacheable(5, 5, 1, 1));
+        assertFalse(frameCache.isCacheable(5, 5, 1, 4));
+    }
+}
@@ -0,0 +1,211 @@
+package com.shark.androidapng.apng.decoder;
+
+import com.shark.androidapng.apng.ApngFormatException;
+import com.shark.androidapng.apng.ApngParser;
+import com.shark.androidapng.apng.ApngStreamParser;
+import com.shark.androidapng.apng.TestAssets;
+import com.shark.androidapng.apng.entity.ChunkEntity;
+import com.shark.androidapng.apng.entity.FctlChunkEntity;
+import com.shark.androidapng.apng.entity.FrameEntity;
+import com.shark.androidapng.apng.entity.IhdrChunkEntity;
+
+import org.junit.Test;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.IndexColorModel;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.Random;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Decoded pixels are checked against javax.imageio.
+ */
+public class PngDecoderTest {
+
+    private static final int WIDTH = 13;
+    private static final int HEIGHT = 11;
+
+    @Test
+    public void decode_apngFramesMatchRebuiltPng() throws Exception {
+        for(String fileName: new String[]{"bell.png", "elephant.png"}) {
+            ApngStreamParser streamParser = new ApngStreamParser(TestAssets.open(fileName));
+            PngDecoder decoder = null;
+            while(streamParser.next() != ApngStreamParser.END_IMAGE) {
+                if(streamParser.getEventType() != ApngStreamParser.FRAME) {
+                    continue;
+                }
+                if(decoder == null) {
+                    decoder = streamParser.createDecoder();
+                }
+                FrameEntity frameEntity = streamParser.getFrameEntity();
+                FctlChunkEntity fctlChunkEntity = frameEntity.getFrameControlChunk();
+                int[] pixels = new int[fctlChunkEntity.getWidth() * fctlChunkEntity.getHeight()];
+                decoder.decode(frameEntity, pixels, 0, fctlChunkEntity.getWidth());
+                BufferedImage image = ImageIO.read(new ByteArrayInputStream(streamParser.getFrameAssembler().assemble(frameEntity)));
+                assertPixelsEqual(image, pixels);
+            }
+            streamParser.close();
+            decoder.release();
+        }
+    }
+
+    @Test
+    public void decode_truecolour() throws Exception {
+        assertDecodesLikeImageIo(randomImage(BufferedImage.TYPE_3BYTE_BGR), false);
+        assertDecodesLikeImageIo(randomImage(BufferedImage.TYPE_4BYTE_ABGR), false);
+        assertDecodesLikeImageIo(randomImage(BufferedImage.TYPE_4BYTE_ABGR), true);
+    }
+
+    @Test
+    public void decode_palette() throws Exception {
+        for(int bitDepth: new int[]{1, 2, 4, 8}) {
+            int size = 1 << bitDepth;
+            byte[] reds = new byte[size];
+            byte[] greens = new byte[size];
+            byte[] blues = new byte[size];
+            byte[] alphas = new byte[size];
+            Random random = new Random(bitDepth);
+            random.nextBytes(reds);
+            random.nextBytes(greens);
+            random.nextBytes(blues);
+            random.nextBytes(alphas);
+            IndexColorModel colorModel = new IndexColorModel(bitDepth, size, reds, greens, blues, alphas);
+            int imageType = bitDepth == 8 ? BufferedImage.TYPE_BYTE_INDEXED : BufferedImage.TYPE_BYTE_BINARY;
+            BufferedImage image = new BufferedImage(WIDTH, HEIGHT, imageType, colorModel);
+            for(int y = 0; y < HEIGHT; y ++) {
+                for(int x = 0; x < WIDTH; x ++) {
+                    image.getRaster().setSample(x, y, 0, random.nextInt(size));
+                }
+            }
+            assertDecodesLikeImageIo(image, false);
+            assertDecodesLikeImageIo(image, true);
+        }
+    }
+
+    @Test
+    public void decode_gray() throws Exception {
+        for(int imageType: new int[]{BufferedImage.TYPE_BYTE_GRAY, BufferedImage.TYPE_USHORT_GRAY}) {
+            BufferedImage image = new BufferedImage(WIDTH, HEIGHT, imageType);
+            Random random = new Random(imageType);
+            int maxSample = imageType == BufferedImage.TYPE_BYTE_GRAY ? 0xFF : 0xFFFF;
+            for(int y = 0; y < HEIGHT; y ++) {
+                for(int x = 0; x < WIDTH; x ++) {
+                    image.getRaster().setSample(x, y, 0, random.nextInt(maxSample + 1));
+                }
+            }
+            int[] pixels = decode(writePng(image, false));
+            for(int y = 0; y < HEIGHT; y ++) {
+                for(int x = 0; x < WIDTH; x ++) {
+                    int gray = image.getRaster().getSample(x, y, 0) * 0xFF / maxSample;
+                    if(maxSample == 0xFFFF) {
+                        gray = image.getRaster().getSample(x, y, 0) >> 8;
+                    }
+                    assertEquals(0xFF000000 | gray << 16 | gray << 8 | gray, pixels[y * WIDTH + x]);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void create_illegalBitDepthFails() throws Exception {
+        int[][] combinations = new int[][]{
+                {PngDecoder.COLOUR_TYPE_RGB, 4}, {PngDecoder.COLOUR_TYPE_INDEXED, 16},
+                {PngDecoder.COLOUR_TYPE_GRAY_ALPHA, 2}, {PngDecoder.COLOUR_TYPE_RGBA, 1}, {PngDecoder.COLOUR_TYPE_GRAY, 3}};
+        for(int[] combination: combinations) {
+            try {
+                new PngDecoder(ihdr(combination[0], combination[1]), null, null);
+                fail("colour type " + combination[0] + ", bit depth " + combination[1]);
+            } catch (ApngFormatException e) {
+                // expected
+            }
+        }
+        new PngDecoder(ihdr(PngDecoder.COLOUR_TYPE_GRAY, 2), null, null).release();
+    }
+
+    private static IhdrChunkEntity ihdr(int colourType, int bitDepth) {
+        ByteBuffer buffer = ByteBuffer.allocate(25);
+        buffer.putInt(13).put(ApngParser.IHDR_TAG_BYTES);
+        buffer.putInt(WIDTH).putInt(HEIGHT).put((byte) bitDepth).put((byte) colourType).put(new byte[]{0, 0, 0});
+        IhdrChunkEntity ihdrChunkEntity = new IhdrChunkEntity();
+        ihdrChunkEntity.setLength(13);
+        ihdrChunkEntity.setTag(ApngParser.IHDR_TAG);
+        ihdrChunkEntity.setBuffer(buffer, 0);
+        return ihdrChunkEntity;
+    }
+
+    private static BufferedImage randomImage(int imageType) {
+        BufferedImage image = new BufferedImage(WIDTH, HEIGHT, imageType);
+        Random random = new Random(imageType);
+        for(int y = 0; y < HEIGHT; y ++) {
+            for(int x = 0; x < WIDTH; x ++) {
+                // runs of equal pixels so every filter type gets picked
+                image.setRGB(x, y, x % 3 == 0 ? random.nextInt() : image.getRGB(x - 1, y));
+            }
+        }
+        return image;
+    }
+
+    private static void assertDecodesLikeImageIo(BufferedImage image, boolean interlaced) throws Exception {
+        byte[] pngBytes = writePng(image, interlaced);
+        assertPixelsEqual(ImageIO.read(new ByteArrayInputStream(pngBytes)), decode(pngBytes));
+    }
+
+    private static void assertPixelsEqual(BufferedImage image, int[] pixels) {
+        for(int y = 0; y < image.getHeight(); y ++) {
+            for(int x = 0; x < image.getWidth(); x ++) {
+                int expected = image.getRGB(x, y);
+                int actual = pixels[y * image.getWidth() + x];
+                if(expected >>> 24 == 0) {
+                    assertEquals("alpha at " + x + "," + y, 0, actual >>> 24);
+                } else {
+                    assertEquals("pixel at " + x + "," + y, Integer.toHexString(expected), Integer.toHexString(actual));
+                }
+            }
+        }
+    }
+
+    /**
+     * Decode a plain png: its IDAT is not a frame, so it comes as a CHUNK event.
+     */
+    private static int[] decode(byte[] pngBytes) throws Exception {
+        ApngStreamParser streamParser = new ApngStreamParser(new ByteArrayInputStream(pngBytes));
+        ChunkEntity idatChunkEntity = null;
+        while(streamParser.next() != ApngStreamParser.END_IMAGE) {
+            if(ApngParser.IDAT_TAG.equals(streamParser.getChunkEntity().getTag())) {
+                assertNull("single IDAT expected", idatChunkEntity);
+                idatChunkEntity = streamParser.getChunkEntity();
+            }
+        }
+        int width = streamParser.getIhdrChunkEntity().getWidth();
+        int height = streamParser.getIhdrChunkEntity().getHeight();
+        int[] pixels = new int[width * height];
+        PngDecoder decoder = streamParser.createDecoder();
+        decoder.decode(idatChunkEntity, width, height, pixels, 0, width);
+        decoder.release();
+        return pixels;
+    }
+
+    private static byte[] writePng(BufferedImage image, boolean interlaced) throws Exception {
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("png");
+        ImageWriter writer = writers.next();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ImageOutputStream imageOutputStream = ImageIO.createImageOutputStream(outputStream);
+        writer.setOutput(imageOutputStream);
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setProgressiveMode(interlaced ? ImageWriteParam.MODE_DEFAULT : ImageWriteParam.MODE_DISABLED);
+        writer.write(null, new IIOImage(image, null, null), param);
+        imageOutputStream.close();
+        writer.dispose();
+        return outputStream.toByteArray();
+    }
+}
@@ -0,0 +1,39 @@
+package com.shark.androidapng.apng.entity;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+public class FctlChunkEntityTest {
+
+    @Test
+    public void setBuffer_readsFieldsAtOffset() {
+        ByteBuffer imageBuffer = ByteBuffer.allocate(5 + 38);
+        imageBuffer.position(5);
+        imageBuffer.putInt(26).put("fcTL".getBytes(StandardCharsets.US_ASCII));
+        imageBuffer.putInt(7).putInt(120).putInt(80).putInt(3).putInt(9);
+        imageBuffer.putShort((short) 15).putShort((short) 1000);
+        imageBuffer.put((byte) FctlChunkEntity.DISPOSE_OP_PREVIOUS).put((byte) FctlChunkEntity.BLEND_OP_OVER);
+        imageBuffer.putInt(0);
+        imageBuffer.position(0);
+
+        FctlChunkEntity fctlChunkEntity = new FctlChunkEntity();
+        fctlChunkEntity.setLength(26);
+        fctlChunkEntity.setTag("fcTL");
+        fctlChunkEntity.setBuffer(imageBuffer, 5);
+        assertEquals(7, fctlChunkEntity.getSequenceNumber());
+        assertEquals(120, fctlChunkEntity.getWidth());
+        assertEquals(80, fctlChunkEntity.getHeight());
+        assertEquals(3, fctlChunkEntity.getxOffset());
+        assertEquals(9, fctlChunkEntity.getyOffset());
+        assertEquals(15, fctlChunkEntity.getDelayNumber());
+        assertEquals(1000, fctlChunkEntity.getDelayDen());
+        assertEquals(FctlChunkEntity.DISPOSE_OP_PREVIOUS, fctlChunkEntity.getDisposeOp());
+        assertEquals(FctlChunkEntity.BLEND_OP_OVER, fctlChunkEntity.getBlendOp());
+        // the shared buffer is read without moving its position
+        assertEquals(0, imageBuffer.position());
+    }
+}
@@ -0,0 +1,52 @@
+package com.shark.androidapng.apng.entity;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+
+import static org.junit.Assert.*;
+
+public class IhdrChunkEntityTest {
+
+    @Test
+    public void resize_copiesWithCrc() {
+        ByteBuffer imageBuffer = ByteBuffer.allocate(3 + 25);
+        imageBuffer.position(3);
+        imageBuffer.putInt(13).put("IHDR".getBytes(StandardCharsets.US_ASCII));
+        imageBuffer.putInt(480).putInt(400).put(new byte[]{8, 6, 0, 0, 1});
+        imageBuffer.putInt(crc(imageBuffer.array(), 3 + 4, 17));
+        byte[] imageBytes = imageBuffer.array().clone();
+
+        IhdrChunkEntity ihdrChunkEntity = new IhdrChunkEntity();
+        ihdrChunkEntity.setLength(13);
+        ihdrChunkEntity.setTag("IHDR");
+        ihdrChunkEntity.setBuffer(imageBuffer, 3);
+        assertEquals(480, ihdrChunkEntity.getWidth());
+        assertEquals(400, ihdrChunkEntity.getHeight());
+        assertEquals(8, ihdrChunkEntity.getBitDepth());
+        assertEquals(6, ihdrChunkEntity.getColourType());
+        assertEquals(1, ihdrChunkEntity.getInterfaceMethod());
+
+        ChunkEntity resizedChunkEntity = ihdrChunkEntity.resize(17, 23);
+        assertEquals(480, ihdrChunkEntity.getWidth());
+        assertEquals(400, ihdrChunkEntity.getHeight());
+        byte[] chunkBytes = new byte[resizedChunkEntity.getChunkLength()];
+        resizedChunkEntity.writeTo(chunkBytes, 0);
+        ByteBuffer chunkBuffer = ByteBuffer.wrap(chunkBytes);
+        assertEquals(17, chunkBuffer.getInt(8));
+        assertEquals(23, chunkBuffer.getInt(12));
+        assertEquals(crc(chunkBytes, 4, 17), chunkBuffer.getInt(21));
+        assertEquals(crc(chunkBytes, 4, 17), resizedChunkEntity.getCrc());
+        // neither the parsed chunk nor the image is patched
+        assertTrue(ihdrChunkEntity.isCrcValid());
+        assertArrayEquals(imageBytes, imageBuffer.array());
+    }
+
+    private static int crc(byte[] bytes, int offset, int length) {
+        CRC32 crc32 = new CRC32();
+        crc32.update(bytes, offset, length);
+        return (int) crc32.getValue();
+    }
+}
@@ -0,0 +1,154 @@
+package com.shark.androidapng.apng.player;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class ApngDecodeSchedulerTest {
+
+    private ApngDecodeScheduler scheduler;
+    private List<String> runList;
+    private CountDownLatch blockLatch;
+
+    @Before
+    public void setUp() throws Exception {
+        scheduler = new ApngDecodeScheduler(1);
+        runList = Collections.synchronizedList(new ArrayList<String>());
+        blockLatch = new CountDownLatch(1);
+        // keep the only thread busy until every task was submitted
+        final CountDownLatch startLatch = new CountDownLatch(1);
+        scheduler.createQueue().submit(new Runnable() {
+            @Override
+            public void run() {
+                startLatch.countDown();
+                try {
+                    blockLatch.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }, 0);
+        assertTrue(startLatch.await(5, TimeUnit.SECONDS));
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void submit_nearestDeadlineRunsFirst() throws Exception {
+        ApngDecodeScheduler.DecodeQueue firstQueue = scheduler.createQueue();
+        ApngDecodeScheduler.DecodeQueue secondQueue = scheduler.createQueue();
+        firstQueue.submit(record("a0"), 10);
+        firstQueue.submit(record("a1"), 40);
+        secondQueue.submit(record("b0"), 20);
+        secondQueue.submit(record("b1"), 30);
+        runAll(4);
+        assertEquals(listOf("a0", "b0", "b1", "a1"), runList);
+    }
+
+    @Test
+    public void submit_queueRunsInSubmissionOrder() throws Exception {
+        ApngDecodeScheduler.DecodeQueue decodeQueue = scheduler.createQueue();
+        decodeQueue.submit(record("a0"), 50);
+        decodeQueue.submit(record("a1"), 10);
+        runAll(2);
+        assertEquals(listOf("a0", "a1"), runList);
+    }
+
+    @Test
+    public void setParked_holdsTasksUntilUnparked() throws Exception {
+        ApngDecodeScheduler.DecodeQueue parkedQueue = scheduler.createQueue();
+        ApngDecodeScheduler.DecodeQueue decodeQueue = scheduler.createQueue();
+        parkedQueue.submit(record("a0"), 10);
+        parkedQueue.setParked(true);
+        decodeQueue.submit(record("b0"), 20);
+        runAll(1);
+        assertEquals(listOf("b0"), runList);
+        parkedQueue.setParked(false);
+        waitFor(2);
+        assertEquals(listOf("b0", "a0"), runList);
+    }
+
+    @Test
+    public void setThrottled_runsAfterOtherQueues() throws Exception {
+        ApngDecodeScheduler.DecodeQueue throttledQueue = scheduler.createQueue();
+        ApngDecodeScheduler.DecodeQueue decodeQueue = scheduler.createQueue();
+        throttledQueue.submit(record("a0"), 10);
+        throttledQueue.setThrottled(true);
+        decodeQueue.submit(record("b0"), 20);
+        runAll(2);
+        assertEquals(listOf("b0", "a0"), runList);
+    }
+
+    @Test
+    public void cancelPending_dropsQueuedTasks() throws Exception {
+        ApngDecodeScheduler.DecodeQueue cancelledQueue = scheduler.createQueue();
+        ApngDecodeScheduler.DecodeQueue decodeQueue = scheduler.createQueue();
+        cancelledQueue.submit(record("a0"), 10);
+        cancelledQueue.submit(record("a1"), 20);
+        decodeQueue.submit(record("b0"), 30);
+        assertEquals(2, cancelledQueue.cancelPending());
+        runAll(1);
+        assertEquals(listOf("b0"), runList);
+    }
+
+    @Test
+    public void submit_failedTaskGoesToListenerAndQueueGoesOn() throws Exception {
+        ApngDecodeScheduler.DecodeQueue decodeQueue = scheduler.createQueue();
+        final Runnable failingTask = new Runnable() {
+            @Override
+            public void run() {
+                throw new IllegalStateException("corrupt frame");
+            }
+        };
+        decodeQueue.setOnTaskFailedListener(new ApngDecodeScheduler.OnTaskFailedListener() {
+            @Override
+            public void onTaskFailed(Runnable task, RuntimeException e) {
+                assertSame(failingTask, task);
+                runList.add("failed " + e.getMessage());
+            }
+        });
+        decodeQueue.submit(failingTask, 10);
+        decodeQueue.submit(record("a1"), 20);
+        runAll(2);
+        assertEquals(listOf("failed corrupt frame", "a1"), runList);
+    }
+
+    private Runnable record(final String name) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                runList.add(name);
+            }
+        };
+    }
+
+    private void runAll(int count) throws InterruptedException {
+        blockLatch.countDown();
+        waitFor(count);
+    }
+
+    private void waitFor(int count) throws InterruptedException {
+        long endTime = System.currentTimeMillis() + 5000;
+        while(runList.size() < count && System.currentTimeMillis() < endTime) {
+            Thread.sleep(5);
+        }
+        Thread.sleep(20);
+    }
+
+    private static List<String> listOf(String... names) {
+        List<String> list = new ArrayList<>();
+        Collections.addAll(list, names);
+        return list;
+    }
+}
@@ -0,0 +1,95 @@
+package com.shark.androidapng.apng.pool;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Items are byte arrays, their length is their byte count.
+ */
+public class LruPoolTest {
+
+    private List<byte[]> evictedList;
+    private LruPool<byte[]> pool;
+
+    @Before
+    public void setUp() {
+        evictedList = new ArrayList<>();
+        pool = new LruPool<>(100, new LruPool.Adapter<byte[]>() {
+            @Override
+            public int getByteCount(byte[] item) {
+                return item.length;
+            }
+
+            @Override
+            public void onEvicted(byte[] item) {
+                evictedList.add(item);
+            }
+        });
+    }
+
+    @Test
+    public void get_returnsItemOfSameKey() {
+        byte[] item = new byte[10];
+        pool.put(1, item);
+        assertNull(pool.get(2));
+        assertSame(item, pool.get(1));
+        assertNull(pool.get(1));
+        assertEquals(0, pool.getCurrentBytes());
+        assertEquals(1, pool.getHitCount());
+        assertEquals(2, pool.getMissCount());
+    }
+
+    @Test
+    public void put_evictsLeastRecentlyReleased() {
+        byte[] first = new byte[40];
+        byte[] second = new byte[40];
+        byte[] third = new byte[40];
+        pool.put(1, first);
+        pool.put(2, second);
+        pool.put(1, third);
+        assertEquals(1, evictedList.size());
+        assertSame(first, evictedList.get(0));
+        assertEquals(80, pool.getCurrentBytes());
+        assertSame(third, pool.get(1));
+        assertSame(second, pool.get(2));
+    }
+
+    @Test
+    public void put_releasedAgainBecomesMostRecent() {
+        byte[] first = new byte[40];
+        byte[] second = new byte[40];
+        pool.put(1, first);
+        pool.put(2, second);
+        assertSame(first, pool.get(1));
+        pool.put(1, first);
+        pool.put(3, new byte[40]);
+        assertSame(second, evictedList.get(0));
+        assertSame(first, pool.get(1));
+    }
+
+    @Test
+    public void put_itemOverBudgetIsEvictedRightAway() {
+        byte[] item = new byte[101];
+        pool.put(1, item);
+        assertSame(item, evictedList.get(0));
+        assertEquals(0, pool.getCount());
+    }
+
+    @Test
+    public void setMaxBytes_trimsPool() {
+        pool.put(1, new byte[30]);
+        pool.put(2, new byte[30]);
+        pool.put(3, new byte[30]);
+        pool.setMaxBytes(50);
+        assertEquals(2, evictedList.size());
+        assertEquals(30, pool.getCurrentBytes());
+        pool.clear();
+        assertEquals(0, pool.getCount());
+        assertEquals(3, pool.getEvictionCount());
+    }
+}
@@ -0,0 +1,85 @@
+package com.shark.androidapng.apng.render;
+
+import com.shark.androidapng.apng.ApngFormatException;
+import com.shark.androidapng.apng.ApngParser;
+import com.shark.androidapng.apng.FrameTable;
+import com.shark.androidapng.apng.TestAssets;
+import com.shark.androidapng.apng.decoder.PngDecoder;
+import com.shark.androidapng.apng.entity.FctlChunkEntity;
+import com.shark.androidapng.apng.entity.FrameEntity;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+public class ApngBatchDecoderTest {
+
+    @Test
+    public void compose_sameCanvasAsCompositingInOrder() throws Exception {
+        ForkJoinPool forkJoinPool = new ForkJoinPool(4);
+        try {
+            for(String fileName: new String[]{"bell.png", "elephant.png"}) {
+                ApngParser apngParser = new ApngParser(TestAssets.readBytes(fileName));
+                final List<int[]> canvasList = composeInOrder(apngParser);
+
+                final List<Integer> frameIndexList = new ArrayList<>();
+                createBatchDecoder(apngParser, forkJoinPool).compose(new ApngBatchDecoder.OnFrameListener() {
+                    @Override
+                    public void onFrame(int[] canvas, int frameIndex) {
+                        assertArrayEquals("frame " + frameIndex, canvasList.get(frameIndex), canvas);
+                        frameIndexList.add(frameIndex);
+                    }
+                });
+                assertEquals(canvasList.size(), frameIndexList.size());
+                for(int i = 0; i < frameIndexList.size(); i++) {
+                    assertEquals(i, (int) frameIndexList.get(i));
+                }
+            }
+        } finally {
+            forkJoinPool.shutdown();
+        }
+    }
+
+    @Test
+    public void decodeFrames_corruptFrameThrowsFormatException() throws Exception {
+        byte[] imageBytes = TestAssets.readBytes("elephant.png");
+        FrameTable frameTable = new ApngParser(imageBytes).getFrameTable();
+        int dataOffset = frameTable.getDataOffset(5) + 8;
+        Arrays.fill(imageBytes, dataOffset, dataOffset + frameTable.getDataLength(5), (byte) 0xFF);
+
+        ForkJoinPool forkJoinPool = new ForkJoinPool(2);
+        try {
+            createBatchDecoder(new ApngParser(imageBytes), forkJoinPool).decodeFrames();
+            fail();
+        } catch (ApngFormatException e) {
+            // expected
+        } finally {
+            forkJoinPool.shutdown();
+        }
+    }
+
+    private static ApngBatchDecoder createBatchDecoder(ApngParser apngParser, ForkJoinPool forkJoinPool) {
+        return new ApngBatchDecoder(apngParser.getFrameList(), apngParser.getFrameAssembler(),
+                apngParser.getWidth(), apngParser.getHeight(), forkJoinPool);
+    }
+
+    private static List<int[]> composeInOrder(ApngParser apngParser) throws Exception {
+        List<int[]> canvasList = new ArrayList<>();
+        ApngCompositor compositor = new ApngCompositor(apngParser.getWidth(), apngParser.getHeight());
+        PngDecoder decoder = apngParser.createDecoder();
+        int[] framePixels = new int[apngParser.getWidth() * apngParser.getHeight()];
+        for(FrameEntity frameEntity: apngParser.getFrameList()) {
+            FctlChunkEntity fctlChunkEntity = frameEntity.getFrameControlChunk();
+            decoder.decode(frameEntity, framePixels, 0, fctlChunkEntity.getWidth());
+            compositor.compose(fctlChunkEntity, framePixels, 0, fctlChunkEntity.getWidth());
+            canvasList.add(compositor.getCanvas().clone());
+        }
+        decoder.release();
+        return canvasList;
+    }
+}
@@ -0,0 +1,100 @@
+package com.shark.androidapng.apng.render;
+
+import com.shark.androidapng.apng.entity.FctlChunkEntity;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ApngCompositorTest {
+
+    private static final int RED = 0xFFFF0000;
+    private static final int BLUE = 0xFF0000FF;
+    private static final int HALF_BLUE = 0x800000FF;
+
+    private ApngCompositor compositor;
+
+    @Before
+    public void setUp() {
+        compositor = new ApngCompositor(4, 4);
+    }
+
+    @Test
+    public void compose_drawsFrameAtOffset() {
+        compositor.compose(fctl(2, 2, 1, 1, FctlChunkEntity.DISPOSE_OP_NONE, FctlChunkEntity.BLEND_OP_SOURCE), fill(4, RED), 0, 2);
+        assertEquals(0, pixel(0, 0));
+        assertEquals(RED, pixel(1, 1));
+        assertEquals(RED, pixel(2, 2));
+        assertEquals(0, pixel(3, 3));
+    }
+
+    @Test
+    public void compose_disposeBackgroundClearsOnlyFrameRegion() {
+        compositor.compose(fctl(4, 4, 0, 0, FctlChunkEntity.DISPOSE_OP_NONE, FctlChunkEntity.BLEND_OP_SOURCE), fill(16, RED), 0, 4);
+        compositor.compose(fctl(1, 1, 0, 0, FctlChunkEntity.DISPOSE_OP_BACKGROUND, FctlChunkEntity.BLEND_OP_SOURCE), fill(1, BLUE), 0, 1);
+        assertEquals(BLUE, pixel(0, 0));
+        compositor.compose(fctl(1, 1, 3, 3, FctlChunkEntity.DISPOSE_OP_NONE, FctlChunkEntity.BLEND_OP_SOURCE), fill(1, BLUE), 0, 1);
+        assertEquals(0, pixel(0, 0));
+        assertEquals(RED, pixel(1, 0));
+    }
+
+    @Test
+    public void compose_disposePreviousRestoresRegion() {
+        compositor.compose(fctl(4, 4, 0, 0, FctlChunkEntity.DISPOSE_OP_NONE, FctlChunkEntity.BLEND_OP_SOURCE), fill(16, RED), 0, 4);
+        compositor.compose(fctl(2, 2, 1, 1, FctlChunkEntity.DISPOSE_OP_PREVIOUS, FctlChunkEntity.BLEND_OP_SOURCE), fill(4, BLUE), 0, 2);
+        assertEquals(BLUE, pixel(1, 1));
+        compositor.compose(fctl(1, 1, 0, 0, FctlChunkEntity.DISPOSE_OP_NONE, FctlChunkEntity.BLEND_OP_SOURCE), fill(1, BLUE), 0, 1);
+        assertEquals(RED, pixel(1, 1));
+        assertEquals(RED, pixel(2, 2));
+    }
+
+    @Test
+    public void compose_firstFrameDisposePreviousActsAsBackground() {
+        compositor.compose(fctl(4, 4, 0, 0, FctlChunkEntity.DISPOSE_OP_PREVIOUS, FctlChunkEntity.BLEND_OP_SOURCE), fill(16, RED), 0, 4);
+        compositor.compose(fctl(1, 1, 0, 0, FctlChunkEntity.DISPOSE_OP_NONE, FctlChunkEntity.BLEND_OP_SOURCE), fill(1, BLUE), 0, 1);
+        assertEquals(BLUE, pixel(0, 0));
+        assertEquals(0, pixel(3, 3));
+    }
+
+    @Test
+    public void compose_blendOverMixesWithCanvas() {
+        compositor.compose(fctl(4, 4, 0, 0, FctlChunkEntity.DISPOSE_OP_NONE, FctlChunkEntity.BLEND_OP_SOURCE), fill(16, RED), 0, 4);
+        compositor.compose(fctl(2, 1, 0, 0, FctlChunkEntity.DISPOSE_OP_NONE, FctlChunkEntity.BLEND_OP_OVER), new int[]{HALF_BLUE, 0}, 0, 2);
+        assertEquals(0xFF7F0080, pixel(0, 0));
+        assertEquals(RED, pixel(1, 0));
+        compositor.compose(fctl(1, 1, 0, 0, FctlChunkEntity.DISPOSE_OP_NONE, FctlChunkEntity.BLEND_OP_SOURCE), new int[]{HALF_BLUE}, 0, 1);
+        assertEquals(HALF_BLUE, pixel(0, 0));
+    }
+
+    @Test
+    public void reset_clearsCanvas() {
+        compositor.compose(fctl(4, 4, 0, 0, FctlChunkEntity.DISPOSE_OP_NONE, FctlChunkEntity.BLEND_OP_SOURCE), fill(16, RED), 0, 4);
+        compositor.reset();
+        assertEquals(-1, compositor.getFrameIndex());
+        assertEquals(0, pixel(2, 2));
+    }
+
+    private int pixel(int x, int y) {
+        return compositor.getCanvas()[y * compositor.getWidth() + x];
+    }
+
+    private static int[] fill(int size, int color) {
+        int[] pixels = new int[size];
+        for(int i = 0; i < size; i ++) {
+            pixels[i] = color;
+        }
+        return pixels;
+    }
+
+    private static FctlChunkEntity fctl(int width, int height, int xOffset, int yOffset, int disposeOp, int blendOp) {
+        FctlChunkEntity fctlChunkEntity = new FctlChunkEntity();
+        fctlChunkEntity.setWidth(width);
+        fctlChunkEntity.setHeight(height);
+        fctlChunkEntity.setxOffset(xOffset);
+        fctlChunkEntity.setyOffset(yOffset);
+        fctlChunkEntity.setDisposeOp(disposeOp);
+        fctlChunkEntity.setBlendOp(blendOp);
+        return fctlChunkEntity;
+    }
+}
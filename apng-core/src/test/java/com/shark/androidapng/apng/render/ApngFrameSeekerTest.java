@@ -0,0 +1,95 @@
+package com.shark.androidapng.apng.render;
+
+import com.shark.androidapng.apng.ApngParser;
+import com.shark.androidapng.apng.TestAssets;
+import com.shark.androidapng.apng.decoder.PngDecoder;
+import com.shark.androidapng.apng.entity.FctlChunkEntity;
+import com.shark.androidapng.apng.entity.FrameEntity;
+import com.shark.androidapng.apng.source.MappedFileSource;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ApngFrameSeekerTest {
+
+    @Test
+    public void findKeyframes_fullCanvasSourceOrAfterBackground() {
+        List<FrameEntity> frameList = new ArrayList<>();
+        frameList.add(frame(4, 4, 0, 0, FctlChunkEntity.DISPOSE_OP_NONE, FctlChunkEntity.BLEND_OP_SOURCE));
+        frameList.add(frame(2, 2, 1, 1, FctlChunkEntity.DISPOSE_OP_NONE, FctlChunkEntity.BLEND_OP_SOURCE));
+        frameList.add(frame(4, 4, 0, 0, FctlChunkEntity.DISPOSE_OP_BACKGROUND, FctlChunkEntity.BLEND_OP_OVER));
+        frameList.add(frame(2, 2, 1, 1, FctlChunkEntity.DISPOSE_OP_NONE, FctlChunkEntity.BLEND_OP_OVER));
+        frameList.add(frame(4, 4, 0, 0, FctlChunkEntity.DISPOSE_OP_PREVIOUS, FctlChunkEntity.BLEND_OP_SOURCE));
+        frameList.add(frame(4, 4, 0, 0, FctlChunkEntity.DISPOSE_OP_NONE, FctlChunkEntity.BLEND_OP_SOURCE));
+        boolean[] keyframes = ApngFrameSeeker.findKeyframes(frameList, 4, 4);
+        assertTrue(keyframes[0]);
+        assertFalse(keyframes[1]);
+        assertFalse(keyframes[2]);
+        assertTrue(keyframes[3]);
+        assertFalse(keyframes[4]);
+        assertTrue(keyframes[5]);
+    }
+
+    @Test
+    public void seek_sameCanvasAsCompositingInOrder() throws Exception {
+        for(String fileName: new String[]{"bell.png", "elephant.png"}) {
+            for(int checkpointInterval: new int[]{0, 5}) {
+                assertSeek(fileName, checkpointInterval);
+            }
+        }
+    }
+
+    private static void assertSeek(String fileName, int checkpointInterval) throws Exception {
+        MappedFileSource source = new MappedFileSource(TestAssets.copyToFile(fileName));
+        try {
+            ApngParser apngParser = new ApngParser(source);
+            List<FrameEntity> frameList = apngParser.getFrameList();
+            int width = apngParser.getWidth();
+            int height = apngParser.getHeight();
+
+            List<int[]> canvasList = new ArrayList<>();
+            ApngCompositor compositor = new ApngCompositor(width, height);
+            PngDecoder decoder = apngParser.createDecoder();
+            int[] framePixels = new int[width * height];
+            for(FrameEntity frameEntity: frameList) {
+                FctlChunkEntity fctlChunkEntity = frameEntity.getFrameControlChunk();
+                decoder.decode(frameEntity, framePixels, 0, fctlChunkEntity.getWidth());
+                compositor.compose(fctlChunkEntity, framePixels, 0, fctlChunkEntity.getWidth());
+                canvasList.add(compositor.getCanvas().clone());
+            }
+
+            ApngFrameSeeker seeker = new ApngFrameSeeker(frameList, apngParser.createDecoder(), width, height);
+            seeker.setCheckpointInterval(checkpointInterval);
+            List<Integer> frameIndexList = new ArrayList<>();
+            for(int i = 0; i < frameList.size(); i++) {
+                frameIndexList.add(i);
+                frameIndexList.add(i);
+            }
+            Collections.shuffle(frameIndexList, new Random(checkpointInterval));
+            for(int frameIndex: frameIndexList) {
+                assertArrayEquals(fileName + " frame " + frameIndex, canvasList.get(frameIndex), seeker.seek(frameIndex));
+            }
+        } finally {
+            source.close();
+        }
+    }
+
+    private static FrameEntity frame(int width, int height, int xOffset, int yOffset, int disposeOp, int blendOp) {
+        FctlChunkEntity fctlChunkEntity = new FctlChunkEntity();
+        fctlChunkEntity.setWidth(width);
+        fctlChunkEntity.setHeight(height);
+        fctlChunkEntity.setxOffset(xOffset);
+        fctlChunkEntity.setyOffset(yOffset);
+        fctlChunkEntity.setDisposeOp(disposeOp);
+        fctlChunkEntity.setBlendOp(blendOp);
+        FrameEntity frameEntity = new FrameEntity();
+        frameEntity.setFrameControlChunk(fctlChunkEntity);
+        return frameEntity;
+    }
+}
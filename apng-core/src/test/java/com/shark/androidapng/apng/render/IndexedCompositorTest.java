@@ -0,0 +1,89 @@
+package com.shark.androidapng.apng.render;
+
+import com.shark.androidapng.apng.entity.FctlChunkEntity;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class IndexedCompositorTest {
+
+    private static final int RED = 0xFFFF0000;
+    private static final int BLUE = 0xFF0000FF;
+    private static final int HALF_BLUE = 0x800000FF;
+    private static final int TRANSPARENT_WHITE = 0x00FFFFFF;
+
+    private static final int[] PALETTE = new int[]{RED, BLUE, HALF_BLUE, TRANSPARENT_WHITE};
+
+    private IndexedCompositor compositor;
+
+    @Before
+    public void setUp() {
+        compositor = new IndexedCompositor(4, 4, 1, PALETTE);
+    }
+
+    @Test
+    public void findClearIndex_transparentColourOrPastPalette() {
+        assertEquals(3, IndexedCompositor.findClearIndex(PALETTE));
+        assertEquals(2, IndexedCompositor.findClearIndex(new int[]{RED, BLUE}));
+        int[] fullPalette = new int[256];
+        for(int i = 0; i < fullPalette.length; i++) {
+            fullPalette[i] = 0xFF000000 | i;
+        }
+        assertEquals(-1, IndexedCompositor.findClearIndex(fullPalette));
+    }
+
+    @Test
+    public void compose_blendOverKeepsCanvasUnderTransparentIndex() {
+        assertTrue(compositor.compose(fctl(4, 4, 0, 0, FctlChunkEntity.DISPOSE_OP_NONE, FctlChunkEntity.BLEND_OP_SOURCE), fill(16, 0), 0, 4));
+        assertTrue(compositor.compose(fctl(2, 1, 0, 0, FctlChunkEntity.DISPOSE_OP_NONE, FctlChunkEntity.BLEND_OP_OVER), new byte[]{1, 3}, 0, 2));
+        assertEquals(BLUE, pixel(0, 0));
+        assertEquals(RED, pixel(1, 0));
+    }
+
+    @Test
+    public void compose_partlyTransparentOverVisibleGivesUp() {
+        assertTrue(compositor.compose(fctl(2, 2, 0, 0, FctlChunkEntity.DISPOSE_OP_BACKGROUND, FctlChunkEntity.BLEND_OP_SOURCE), fill(4, 0), 0, 2));
+        // onto the cleared canvas the colour is kept as it is
+        assertTrue(compositor.compose(fctl(1, 1, 0, 0, FctlChunkEntity.DISPOSE_OP_NONE, FctlChunkEntity.BLEND_OP_OVER), new byte[]{2}, 0, 1));
+        assertEquals(HALF_BLUE, pixel(0, 0));
+        assertTrue(compositor.compose(fctl(2, 2, 0, 0, FctlChunkEntity.DISPOSE_OP_NONE, FctlChunkEntity.BLEND_OP_SOURCE), fill(4, 0), 0, 2));
+        assertFalse(compositor.compose(fctl(1, 1, 1, 1, FctlChunkEntity.DISPOSE_OP_NONE, FctlChunkEntity.BLEND_OP_OVER), new byte[]{2}, 0, 1));
+        assertEquals(2, compositor.getFrameIndex());
+        assertEquals(RED, pixel(1, 1));
+    }
+
+    @Test
+    public void disposeBackground_clearsToTransparent() {
+        compositor.compose(fctl(4, 4, 0, 0, FctlChunkEntity.DISPOSE_OP_BACKGROUND, FctlChunkEntity.BLEND_OP_SOURCE), fill(16, 0), 0, 4);
+        compositor.disposeFrame();
+        assertEquals(0, pixel(2, 2) >>> 24);
+        assertEquals(3, compositor.getCanvas()[0]);
+    }
+
+    private int pixel(int x, int y) {
+        int[] pixels = new int[compositor.getCanvas().length];
+        compositor.expand(compositor.getCanvas(), pixels);
+        return pixels[y * compositor.getWidth() + x];
+    }
+
+    private static byte[] fill(int size, int index) {
+        byte[] indexes = new byte[size];
+        for(int i = 0; i < size; i ++) {
+            indexes[i] = (byte) index;
+        }
+        return indexes;
+    }
+
+    private static FctlChunkEntity fctl(int width, int height, int xOffset, int yOffset, int disposeOp, int blendOp) {
+        FctlChunkEntity fctlChunkEntity = new FctlChunkEntity();
+        fctlChunkEntity.setWidth(width);
+        fctlChunkEntity.setHeight(height);
+        fctlChunkEntity.setxOffset(xOffset);
+        fctlChunkEntity.setyOffset(yOffset);
+        fctlChunkEntity.setDisposeOp(disposeOp);
+        fctlChunkEntity.setBlendOp(blendOp);
+        return fctlChunkEntity;
+    }
+}
@@ -0,0 +1,97 @@
+package com.shark.androidapng.apng.render;
+
+import com.shark.androidapng.apng.ApngParser;
+import com.shark.androidapng.apng.TestAssets;
+import com.shark.androidapng.apng.decoder.PngDecoder;
+import com.shark.androidapng.apng.entity.FctlChunkEntity;
+import com.shark.androidapng.apng.entity.FrameEntity;
+import com.shark.androidapng.util.SampleSizeUtil;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class PixelFormatTest {
+
+    @Test
+    public void select_smallestFormatOfImage() throws Exception {
+        ApngParser bellParser = parse("bell.png");
+        assertEquals(PixelFormat.INDEXED_8, PixelFormat.select(bellParser.createDecoder(), bellParser.getFrameList(),
+                bellParser.getWidth(), bellParser.getHeight()));
+        ApngParser elephantParser = parse("elephant.png");
+        assertEquals(PixelFormat.ARGB_8888, PixelFormat.select(elephantParser.createDecoder(), elephantParser.getFrameList(),
+                elephantParser.getWidth(), elephantParser.getHeight()));
+    }
+
+    @Test
+    public void indexedCompositor_expandsToArgbCanvas() throws Exception {
+        ApngParser apngParser = parse("bell.png");
+        for(int sampleSize: new int[]{1, 2}) {
+            List<FrameEntity> frameList = apngParser.getFrameList();
+            PngDecoder decoder = apngParser.createDecoder();
+            ApngCompositor compositor = new ApngCompositor(apngParser.getWidth(), apngParser.getHeight(), sampleSize);
+            IndexedCompositor indexedCompositor = new IndexedCompositor(apngParser.getWidth(), apngParser.getHeight(),
+                    sampleSize, decoder.getPalette());
+            ApngCompositor argbCompositor = null;
+            int[] expandedPixels = new int[compositor.getCanvas().length];
+            for(int i = 0; i < frameList.size(); i++) {
+                FrameEntity frameEntity = frameList.get(i);
+                FctlChunkEntity fctlChunkEntity = frameEntity.getFrameControlChunk();
+                int frameWidth = SampleSizeUtil.scaleLength(fctlChunkEntity.getxOffset(), fctlChunkEntity.getWidth(), sampleSize);
+                int frameHeight = SampleSizeUtil.scaleLength(fctlChunkEntity.getyOffset(), fctlChunkEntity.getHeight(), sampleSize);
+                int[] framePixels = new int[frameWidth * frameHeight];
+                decoder.decode(frameEntity, sampleSize, framePixels, 0, frameWidth);
+                compositor.compose(fctlChunkEntity, framePixels, 0, frameWidth);
+                if(argbCompositor == null) {
+                    byte[] frameIndexes = new byte[frameWidth * frameHeight];
+                    decoder.decode(frameEntity, sampleSize, frameIndexes, 0, frameWidth);
+                    if(indexedCompositor.compose(fctlChunkEntity, frameIndexes, 0, frameWidth)) {
+                        indexedCompositor.expand(indexedCompositor.getCanvas(), expandedPixels);
+                        assertCanvasEquals(i, compositor.getCanvas(), expandedPixels);
+                        continue;
+                    }
+                    // the frame blends colours missing from the palette, the disposed canvas goes on in ARGB
+                    indexedCompositor.expand(indexedCompositor.getCanvas(), expandedPixels);
+                    argbCompositor = new ApngCompositor(apngParser.getWidth(), apngParser.getHeight(), sampleSize);
+                    argbCompositor.restore(expandedPixels, i);
+                }
+                argbCompositor.compose(fctlChunkEntity, framePixels, 0, frameWidth);
+                assertCanvasEquals(i, compositor.getCanvas(), argbCompositor.getCanvas());
+            }
+            decoder.release();
+        }
+    }
+
+    private static void assertCanvasEquals(int frameIndex, int[] canvas, int[] expandedPixels) {
+        for(int j = 0; j < canvas.length; j++) {
+            // the colour of fully transparent pixels does not show
+            assertEquals("frame " + frameIndex + " pixel " + j, visible(canvas[j]), visible(expandedPixels[j]));
+        }
+    }
+
+    @Test
+    public void toRgb565_dropsAlphaAndLowBits() {
+        short[] rgb565Pixels = new short[3];
+        PixelFormat.toRgb565(new int[]{0xFFFFFFFF, 0x80FF0000, 0xFF08040F}, rgb565Pixels, 3);
+        assertEquals((short) 0xFFFF, rgb565Pixels[0]);
+        assertEquals((short) 0xF800, rgb565Pixels[1]);
+        assertEquals((short) 0x0821, rgb565Pixels[2]);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void decodeIndexes_rejectsTruecolourImage() throws Exception {
+        ApngParser apngParser = parse("elephant.png");
+        FrameEntity frameEntity = apngParser.getFrameList().get(0);
+        apngParser.createDecoder().decode(frameEntity, 1, new byte[apngParser.getWidth() * apngParser.getHeight()], 0, apngParser.getWidth());
+    }
+
+    private static int visible(int pixel) {
+        return pixel >>> 24 == 0 ? 0 : pixel;
+    }
+
+    private static ApngParser parse(String fileName) throws Exception {
+        return new ApngParser(TestAssets.readBytes(fileName));
+    }
+}
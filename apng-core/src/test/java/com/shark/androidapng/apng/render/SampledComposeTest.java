@@ -0,0 +1,66 @@
+package com.shark.androidapng.apng.render;
+
+import com.shark.androidapng.apng.ApngParser;
+import com.shark.androidapng.apng.TestAssets;
+import com.shark.androidapng.apng.decoder.PngDecoder;
+import com.shark.androidapng.apng.entity.FctlChunkEntity;
+import com.shark.androidapng.apng.entity.FrameEntity;
+import com.shark.androidapng.util.SampleSizeUtil;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class SampledComposeTest {
+
+    @Test
+    public void compose_sampledCanvasIsFullCanvasPointSampled() throws Exception {
+        for(String fileName: new String[]{"bell.png", "elephant.png"}) {
+            ApngParser apngParser = new ApngParser(TestAssets.readBytes(fileName));
+            for(int sampleSize: new int[]{2, 4}) {
+                assertSampled(apngParser, sampleSize);
+            }
+        }
+    }
+
+    @Test
+    public void compositor_canvasRoundsUp() {
+        ApngCompositor compositor = new ApngCompositor(9, 7, 4);
+        assertEquals(3, compositor.getWidth());
+        assertEquals(2, compositor.getHeight());
+        assertEquals(6, compositor.getCanvas().length);
+    }
+
+    private static void assertSampled(ApngParser apngParser, int sampleSize) throws Exception {
+        List<FrameEntity> frameList = apngParser.getFrameList();
+        PngDecoder decoder = apngParser.createDecoder();
+        ApngCompositor compositor = new ApngCompositor(apngParser.getWidth(), apngParser.getHeight());
+        ApngCompositor sampledCompositor = new ApngCompositor(apngParser.getWidth(), apngParser.getHeight(), sampleSize);
+        int width = compositor.getWidth();
+        int sampledWidth = sampledCompositor.getWidth();
+        for(int i = 0; i < frameList.size(); i++) {
+            FrameEntity frameEntity = frameList.get(i);
+            FctlChunkEntity fctlChunkEntity = frameEntity.getFrameControlChunk();
+            int[] framePixels = new int[fctlChunkEntity.getWidth() * fctlChunkEntity.getHeight()];
+            decoder.decode(frameEntity, framePixels, 0, fctlChunkEntity.getWidth());
+            compositor.compose(fctlChunkEntity, framePixels, 0, fctlChunkEntity.getWidth());
+
+            int frameWidth = SampleSizeUtil.scaleLength(fctlChunkEntity.getxOffset(), fctlChunkEntity.getWidth(), sampleSize);
+            int frameHeight = SampleSizeUtil.scaleLength(fctlChunkEntity.getyOffset(), fctlChunkEntity.getHeight(), sampleSize);
+            int[] sampledPixels = new int[frameWidth * frameHeight];
+            decoder.decode(frameEntity, sampleSize, sampledPixels, 0, frameWidth);
+            sampledCompositor.compose(fctlChunkEntity, sampledPixels, 0, frameWidth);
+
+            for(int y = 0; y < sampledCompositor.getHeight(); y++) {
+                for(int x = 0; x < sampledWidth; x++) {
+                    assertEquals("frame " + i + " at " + x + "," + y + " sample size " + sampleSize,
+                            compositor.getCanvas()[y * sampleSize * width + x * sampleSize],
+                            sampledCompositor.getCanvas()[y * sampledWidth + x]);
+                }
+            }
+        }
+        decoder.release();
+    }
+}
@@ -0,0 +1,70 @@
+package com.shark.androidapng.apng.source;
+
+import com.shark.androidapng.apng.ApngParser;
+import com.shark.androidapng.apng.TestAssets;
+import com.shark.androidapng.apng.entity.FrameEntity;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.*;
+
+/**
+ * Runs on the jvm, the image is a temporary copy of a test resource.
+ */
+public class MappedFileSourceTest {
+
+    private byte[] imageBytes;
+    private MappedFileSource mappedFileSource;
+
+    @Before
+    public void setUp() throws Exception {
+        imageBytes = TestAssets.readBytes("bell.png");
+        mappedFileSource = new MappedFileSource(TestAssets.copyToFile("bell.png"));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        mappedFileSource.close();
+    }
+
+    @Test
+    public void buffer_mapsWholeFile() throws Exception {
+        ByteBuffer buffer = mappedFileSource.getBuffer();
+        assertTrue(buffer.isDirect());
+        assertEquals(imageBytes.length, mappedFileSource.getLength());
+        for(int i = 0; i < imageBytes.length; i ++) {
+            assertEquals(imageBytes[i], buffer.get(i));
+        }
+    }
+
+    @Test
+    public void openStream_readsWholeFile() throws Exception {
+        InputStream inputStream = mappedFileSource.openStream();
+        for(int i = 0; i < imageBytes.length; i ++) {
+            assertEquals(imageBytes[i] & 0xFF, inputStream.read());
+        }
+        assertEquals(-1, inputStream.read());
+        assertEquals(0, mappedFileSource.getBuffer().position());
+    }
+
+    @Test
+    public void parser_sameFramesAsByteArray() throws Exception {
+        ApngParser byteArrayParser = new ApngParser(imageBytes);
+        ApngParser mappedParser = new ApngParser(mappedFileSource);
+        assertTrue(mappedParser.isApng());
+        assertEquals(byteArrayParser.getFrameList().size(), mappedParser.getFrameList().size());
+        assertEquals(40, mappedParser.getFrameList().size());
+        for(int i = 0; i < mappedParser.getFrameList().size(); i ++) {
+            FrameEntity byteArrayFrame = byteArrayParser.getFrameList().get(i);
+            FrameEntity mappedFrame = mappedParser.getFrameList().get(i);
+            assertSame(mappedFileSource.getBuffer(), mappedFrame.getFrameControlChunk().getBuffer());
+            assertArrayEquals(byteArrayParser.getFrameAssembler().assemble(byteArrayFrame),
+                    mappedParser.getFrameAssembler().assemble(mappedFrame));
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.shark.androidapng.util;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.CRC32;
+
+import static org.junit.Assert.*;
+
+public class CrcUtilTest {
+
+    @Test
+    public void crc_sameAsCrc32() {
+        Random random = new Random(7);
+        for(int length: new int[]{0, 1, 4, 17, 1000, 70000}) {
+            byte[] bytes = new byte[length + 3];
+            random.nextBytes(bytes);
+            int expected = crc32(bytes, 3, length);
+            assertEquals(expected, CrcUtil.crc(bytes, 3, length));
+            assertEquals(expected, CrcUtil.crc(ByteBuffer.wrap(bytes), 3, length));
+            ByteBuffer directBuffer = ByteBuffer.allocateDirect(bytes.length);
+            directBuffer.put(bytes);
+            assertEquals(expected, CrcUtil.crc(directBuffer, 3, length));
+            assertEquals(bytes.length, directBuffer.position());
+            assertEquals(expected, CrcUtil.crc(ByteBuffer.wrap(bytes).asReadOnlyBuffer(), 3, length));
+            assertEquals(expected, CrcUtil.update(CrcUtil.crc(bytes, 3, length / 2), bytes, 3 + length / 2, length - length / 2));
+        }
+    }
+
+    @Test
+    public void combine_crcOfConcatenation() {
+        Random random = new Random(11);
+        for(int length: new int[]{0, 1, 8, 255, 256, 65537}) {
+            byte[] bytes = new byte[length + 10];
+            random.nextBytes(bytes);
+            int crcX = crc32(bytes, 0, 10);
+            int crcY = crc32(bytes, 10, length);
+            assertEquals(crc32(bytes, 0, bytes.length), CrcUtil.combine(crcX, crcY, length));
+        }
+    }
+
+    @Test
+    public void replaceHead_crcWithAnotherHead() {
+        Random random = new Random(13);
+        byte[] tail = new byte[5000];
+        random.nextBytes(tail);
+        byte[] head = new byte[]{'f', 'd', 'A', 'T', 0, 0, 0, 9};
+        byte[] newHead = new byte[]{'I', 'D', 'A', 'T'};
+        int crc = crc32(concat(head, tail), 0, head.length + tail.length);
+        int expected = crc32(concat(newHead, tail), 0, newHead.length + tail.length);
+        assertEquals(expected, CrcUtil.replaceHead(crc, crc32(head, 0, head.length), crc32(newHead, 0, newHead.length), tail.length));
+    }
+
+    private static byte[] concat(byte[] bytes1, byte[] bytes2) {
+        byte[] bytes = Arrays.copyOf(bytes1, bytes1.length + bytes2.length);
+        System.arraycopy(bytes2, 0, bytes, bytes1.length, bytes2.length);
+        return bytes;
+    }
+
+    private static int crc32(byte[] bytes, int offset, int length) {
+        CRC32 crc32 = new CRC32();
+        crc32.update(bytes, offset, length);
+        return (int) crc32.getValue();
+    }
+}
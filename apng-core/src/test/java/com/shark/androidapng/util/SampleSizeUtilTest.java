@@ -0,0 +1,46 @@
+package com.shark.androidapng.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SampleSizeUtilTest {
+
+    @Test
+    public void forTargetSize_largestPowerOfTwoKeepingTarget() {
+        assertEquals(8, SampleSizeUtil.forTargetSize(512, 512, 48, 48));
+        assertEquals(4, SampleSizeUtil.forTargetSize(512, 200, 48, 48));
+        assertEquals(1, SampleSizeUtil.forTargetSize(72, 72, 48, 48));
+        assertEquals(1, SampleSizeUtil.forTargetSize(20, 20, 48, 48));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void checkSampleSize_rejectsNotPowerOfTwo() {
+        SampleSizeUtil.checkSampleSize(3);
+    }
+
+    @Test
+    public void scaleLength_keepsPixelsAtMultiplesOfSampleSize() {
+        for(int sampleSize: new int[]{1, 2, 4, 8}) {
+            for(int offset = 0; offset < 20; offset++) {
+                for(int length = 0; length < 20; length++) {
+                    int kept = 0;
+                    int first = -1;
+                    for(int i = offset; i < offset + length; i++) {
+                        if(i % sampleSize == 0) {
+                            if(first < 0) {
+                                first = i;
+                            }
+                            kept++;
+                        }
+                    }
+                    assertEquals(kept, SampleSizeUtil.scaleLength(offset, length, sampleSize));
+                    if(first >= 0) {
+                        assertEquals(first / sampleSize, SampleSizeUtil.scaleOffset(offset, sampleSize));
+                        assertEquals(first - offset, SampleSizeUtil.firstKept(offset, sampleSize));
+                    }
+                }
+            }
+        }
+    }
+}
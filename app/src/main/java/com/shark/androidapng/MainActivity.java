@@ -1,18 +1,24 @@
 package com.shark.androidapng;
 
+import android.content.res.AssetFileDescriptor;
+import android.graphics.Bitmap;
 import android.os.Bundle;
 import android.support.v7.app.AppCompatActivity;
 import android.util.Log;
 import android.widget.ImageView;
 
 import com.shark.androidapng.apng.ApngParser;
+import com.shark.androidapng.apng.player.ApngPlayer;
+import com.shark.androidapng.apng.source.MappedFileSource;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
 
 public class MainActivity extends AppCompatActivity {
 
+    private ImageView apngImageView;
+    private MappedFileSource apngSource;
+    private ApngPlayer apngPlayer;
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -20,26 +26,57 @@ public class MainActivity extends AppCompatActivity {
         bindContentView();
     }
 
+    @Override
+    protected void onStart() {
+        super.onStart();
+        if(apngPlayer != null) {
+            apngPlayer.start();
+        }
+    }
+
+    @Override
+    protected void onStop() {
+        super.onStop();
+        if(apngPlayer != null) {
+            apngPlayer.pause();
+        }
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        if(apngPlayer != null) {
+            apngImageView.setImageDrawable(null);
+            apngPlayer.release();
+        }
+        if(apngSource != null) {
+            try {
+                apngSource.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
     private void bindContentView() {
         bindApngImageView();
     }
 
     private void bindApngImageView() {
+        apngImageView = (ImageView) findViewById(R.id.activityMain_apngImageView);
         try {
-            InputStream inputStream = getAssets().open("bell.png");
-            ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-            int length;
-            byte[] buffer = new byte[4096];
-            while ((length = inputStream.read(buffer, 0, buffer.length)) != -1) {
-                byteArrayOutputStream.write(buffer, 0, length);
-            }
-            byteArrayOutputStream.flush();
-            byte[] originalImageBytes = byteArrayOutputStream.toByteArray();
-            Log.e("Mian", "originalImageBytes size: " + originalImageBytes.length);
-            ApngParser apngParser = new ApngParser(originalImageBytes);
-            ImageView imageView = (ImageView) findViewById(R.id.activityMain_apngImageView);
+            // png assets are stored uncompressed, so they can be mapped straight from the apk
+            AssetFileDescriptor assetFileDescriptor = getAssets().openFd("bell.png");
+            apngSource = new MappedFileSource(assetFileDescriptor.createInputStream(),
+                    assetFileDescriptor.getStartOffset(), assetFileDescriptor.getLength());
+            ApngParser apngParser = new ApngParser(apngSource);
             Log.e("Mian", "apng frame list size: " + apngParser.getFrameList().size());
-            imageView.setImageBitmap(apngParser.generateFrameDataBitmap(apngParser.getFrameList().get(10)));
+            apngPlayer = new ApngPlayer(apngParser, 3, new ApngPlayer.OnFrameListener() {
+                @Override
+                public void onFrame(Bitmap bitmap, int frameIndex) {
+                    apngImageView.setImageBitmap(bitmap);
+                }
+            });
         } catch (IOException e) {
             e.printStackTrace();
         }
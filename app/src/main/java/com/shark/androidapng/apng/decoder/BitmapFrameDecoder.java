@@ -0,0 +1,57 @@
+package com.shark.androidapng.apng.decoder;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+
+import com.shark.androidapng.apng.pool.BitmapPool;
+import com.shark.androidapng.util.SampleSizeUtil;
+
+import java.io.InputStream;
+
+/**
+ * Decodes frames with BitmapFactory into bitmaps of the {@link BitmapPool}, give them back
+ * with {@link BitmapPool#put(Bitmap)} once they are not drawn any more.
+ *
+ * With a sample size BitmapFactory subsamples each frame on its own, not aligned to the canvas
+ * like {@link PngDecoder} does: frames at odd offsets may be off by a pixel once composited.
+ */
+public class BitmapFrameDecoder implements FrameDecoder<Bitmap> {
+
+    private final BitmapPool bitmapPool;
+    private final int sampleSize;
+
+    public BitmapFrameDecoder() {
+        this(BitmapPool.getInstance());
+    }
+
+    public BitmapFrameDecoder(BitmapPool bitmapPool) {
+        this(bitmapPool, 1);
+    }
+
+    /**
+     * @param sampleSize a power of two, inSampleSize of every decoded image
+     */
+    public BitmapFrameDecoder(BitmapPool bitmapPool, int sampleSize) {
+        SampleSizeUtil.checkSampleSize(sampleSize);
+        this.bitmapPool = bitmapPool;
+        this.sampleSize = sampleSize;
+    }
+
+    @Override
+    public Bitmap decodeImage(InputStream inputStream) {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inSampleSize = sampleSize;
+        return BitmapFactory.decodeStream(inputStream, null, options);
+    }
+
+    @Override
+    public Bitmap decodeFrame(byte[] imageBytes, int offset, int length, int width, int height) {
+        // BitmapFactory rounds the sampled size down
+        return bitmapPool.decodeByteArray(imageBytes, offset, length,
+                Math.max(1, width / sampleSize), Math.max(1, height / sampleSize), sampleSize);
+    }
+
+    public int getSampleSize() {
+        return sampleSize;
+    }
+}
@@ -0,0 +1,523 @@
+package com.shark.androidapng.apng.player;
+
+import android.graphics.Bitmap;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.shark.androidapng.apng.ApngFormatException;
+import com.shark.androidapng.apng.ApngParser;
+import com.shark.androidapng.apng.FrameTable;
+import com.shark.androidapng.apng.cache.FrameCache;
+import com.shark.androidapng.apng.decoder.PngDecoder;
+import com.shark.androidapng.apng.entity.FctlChunkEntity;
+import com.shark.androidapng.apng.entity.FrameEntity;
+import com.shark.androidapng.apng.pool.BitmapPool;
+import com.shark.androidapng.apng.render.ApngCompositor;
+import com.shark.androidapng.apng.render.IndexedCompositor;
+import com.shark.androidapng.apng.render.PixelFormat;
+import com.shark.androidapng.util.SampleSizeUtil;
+
+import java.nio.ShortBuffer;
+import java.util.ArrayDeque;
+import java.util.List;
+
+/**
+ * Plays an animation: while a frame is on screen the next look ahead count frames are decoded
+ * and composited on the shared {@link ApngDecodeScheduler}, each frame is shown on the main
+ * thread when its fcTL delay is over.
+ *
+ * Animations small enough for the {@link FrameCache} are decoded once, the following loops
+ * are drawn from the cached frames.
+ *
+ * Thumbnails can be played with a sample size, frames are then decoded and composited at that
+ * scale, see {@link com.shark.androidapng.util.SampleSizeUtil}.
+ *
+ * Frames are composited and cached in the smallest {@link PixelFormat} of the animation and
+ * only expanded into the bitmap drawn: palette indexes for indexed images, RGB_565 bitmaps for
+ * animations never showing a transparent pixel.
+ *
+ * Must be used from the main thread. {@link #pause()} cancels the decoding not started yet,
+ * {@link #release()} gives every bitmap back to the {@link BitmapPool}.
+ */
+public class ApngPlayer {
+
+    public interface OnFrameListener {
+
+        /**
+         * Called on the main thread, the bitmap goes back to the pool with the next frame.
+         */
+        void onFrame(Bitmap bitmap, int frameIndex);
+    }
+
+    /** a 0 delay means as fast as possible, clamped like browsers do */
+    private static final int MIN_DELAY_MILLIS = 10;
+    private static final int DEFAULT_DELAY_DEN = 100;
+
+    private static class DecodedFrame {
+        private final Bitmap bitmap;
+        private final int frameIndex;
+        private final int delayMillis;
+
+        private DecodedFrame(Bitmap bitmap, int frameIndex, int delayMillis) {
+            this.bitmap = bitmap;
+            this.frameIndex = frameIndex;
+            this.delayMillis = delayMillis;
+        }
+    }
+
+    private final List<FrameEntity> frameList;
+    private final FrameTable frameTable;
+    private final int playCount;
+    private final OnFrameListener onFrameListener;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final ApngDecodeScheduler.DecodeQueue decodeQueue;
+
+    private final long contentHash;
+    private final int width;
+    private final int height;
+    private final int sampleSize;
+
+    // only used by the decode queue, one task at a time
+    private final PngDecoder decoder;
+    private final Bitmap.Config bitmapConfig;
+    private final int canvasWidth;
+    private final int canvasHeight;
+    private volatile PixelFormat pixelFormat;
+    private FrameCache frameCache;
+    // one of the compositors, following the pixel format
+    private ApngCompositor compositor;
+    private IndexedCompositor indexedCompositor;
+    private int[] framePixels = new int[0];
+    private byte[] frameIndexes = new byte[0];
+    private int[] expandedPixels;
+    private short[] rgb565Pixels;
+    private int decodeFrameIndex = -1;
+
+    // only used on the main thread
+    private final ArrayDeque<DecodedFrame> decodedFrameQueue = new ArrayDeque<>();
+    private int lookAheadCount;
+    private int pendingCount;
+    private int requestedFrameCount;
+    private int shownFrameCount;
+    private boolean playing;
+    private boolean released;
+    private boolean waitingForFrame;
+    private long nextFrameTime;
+    private long requestDeadline;
+    private Bitmap shownBitmap;
+
+    private final Runnable showFrameRunnable = new Runnable() {
+        @Override
+        public void run() {
+            showNextFrame();
+        }
+    };
+
+    /**
+     * @param lookAheadCount frames decoded ahead of the one on screen, at least 1
+     */
+    public ApngPlayer(ApngParser apngParser, int lookAheadCount, OnFrameListener onFrameListener) throws ApngFormatException {
+        this(apngParser, lookAheadCount, onFrameListener, ApngDecodeScheduler.getInstance(), FrameCache.getInstance());
+    }
+
+    /**
+     * @param frameCache null to decode every loop again
+     */
+    public ApngPlayer(ApngParser apngParser, int lookAheadCount, OnFrameListener onFrameListener,
+                      ApngDecodeScheduler decodeScheduler, FrameCache frameCache) throws ApngFormatException {
+        this(apngParser, lookAheadCount, onFrameListener, decodeScheduler, frameCache, 1);
+    }
+
+    /**
+     * @param sampleSize a power of two, bitmaps are the image size divided by it rounded up
+     * @throws ApngFormatException when the image is not animated
+     */
+    public ApngPlayer(ApngParser apngParser, int lookAheadCount, OnFrameListener onFrameListener,
+                      ApngDecodeScheduler decodeScheduler, FrameCache frameCache, int sampleSize) throws ApngFormatException {
+        apngParser.checkApng();
+        this.frameList = apngParser.getFrameList();
+        this.frameTable = apngParser.getFrameTable();
+        this.playCount = apngParser.getActlChunkEntity().getPlayCount();
+        this.lookAheadCount = Math.max(1, lookAheadCount);
+        this.onFrameListener = onFrameListener;
+        decoder = apngParser.createDecoder();
+        width = apngParser.getWidth();
+        height = apngParser.getHeight();
+        pixelFormat = PixelFormat.select(decoder, frameList, width, height);
+        bitmapConfig = PixelFormat.isCanvasOpaque(decoder, frameList, width, height) ? Bitmap.Config.RGB_565 : Bitmap.Config.ARGB_8888;
+        if(pixelFormat == PixelFormat.INDEXED_8) {
+            compositor = null;
+            indexedCompositor = new IndexedCompositor(width, height, sampleSize, decoder.getPalette());
+            canvasWidth = indexedCompositor.getWidth();
+            canvasHeight = indexedCompositor.getHeight();
+        } else {
+            compositor = new ApngCompositor(width, height, sampleSize);
+            indexedCompositor = null;
+            canvasWidth = compositor.getWidth();
+            canvasHeight = compositor.getHeight();
+        }
+        this.sampleSize = sampleSize;
+        decodeQueue = decodeScheduler.createQueue();
+        if(frameCache != null && frameCache.isCacheable(canvasWidth, canvasHeight, frameList.size(), pixelFormat.getBytesPerPixel())) {
+            this.frameCache = frameCache;
+        } else {
+            this.frameCache = null;
+        }
+        if(sampleSize == 1) {
+            contentHash = apngParser.getContentHash();
+        } else {
+            // the canvases of each sample size are cached apart
+            contentHash = apngParser.getContentHash() * 31 + sampleSize;
+        }
+    }
+
+    public void start() {
+        if(playing || released || frameList.isEmpty()) {
+            return;
+        }
+        if(isFinished()) {
+            requestedFrameCount = requestedFrameCount - shownFrameCount;
+            shownFrameCount = 0;
+        }
+        playing = true;
+        nextFrameTime = SystemClock.uptimeMillis();
+        requestDeadline = nextFrameTime;
+        requestFrames();
+        showNextFrame();
+    }
+
+    /**
+     * Stop on the frame shown, decoded frames are kept for {@link #start()}.
+     */
+    public void pause() {
+        playing = false;
+        waitingForFrame = false;
+        handler.removeCallbacks(showFrameRunnable);
+        int cancelCount = decodeQueue.cancelPending();
+        pendingCount = pendingCount - cancelCount;
+        requestedFrameCount = requestedFrameCount - cancelCount;
+    }
+
+    /**
+     * The view must not draw the last shown bitmap any more, it goes back to the pool.
+     */
+    public void release() {
+        if(released) {
+            return;
+        }
+        pause();
+        released = true;
+        BitmapPool bitmapPool = BitmapPool.getInstance();
+        while(!decodedFrameQueue.isEmpty()) {
+            bitmapPool.put(decodedFrameQueue.poll().bitmap);
+        }
+        bitmapPool.put(shownBitmap);
+        shownBitmap = null;
+        decodeQueue.setParked(false);
+        decodeQueue.submit(new Runnable() {
+            @Override
+            public void run() {
+                decoder.release();
+            }
+        }, 0);
+    }
+
+    public boolean isPlaying() {
+        return playing;
+    }
+
+    /**
+     * Off screen animations can be parked: nothing is decoded for them, the frames already
+     * decoded are still shown on time.
+     */
+    public void setParked(boolean parked) {
+        decodeQueue.setParked(parked);
+    }
+
+    /**
+     * Throttled animations are only decoded when the visible ones have nothing to decode.
+     */
+    public void setThrottled(boolean throttled) {
+        decodeQueue.setThrottled(throttled);
+    }
+
+    public int getSampleSize() {
+        return sampleSize;
+    }
+
+    /**
+     * @return the format frames are composited and cached in, indexed animations go on in ARGB
+     * once a frame blends colours missing from the palette
+     */
+    public PixelFormat getPixelFormat() {
+        return pixelFormat;
+    }
+
+    public int getLookAheadCount() {
+        return lookAheadCount;
+    }
+
+    public void setLookAheadCount(int lookAheadCount) {
+        this.lookAheadCount = Math.max(1, lookAheadCount);
+        requestFrames();
+    }
+
+    private boolean isFinished() {
+        return playCount > 0 && shownFrameCount >= playCount * frameList.size();
+    }
+
+    private void showNextFrame() {
+        if(!playing) {
+            return;
+        }
+        DecodedFrame decodedFrame = decodedFrameQueue.poll();
+        if(decodedFrame == null) {
+            waitingForFrame = true;
+            requestFrames();
+            return;
+        }
+        waitingForFrame = false;
+        Bitmap previousBitmap = shownBitmap;
+        shownBitmap = decodedFrame.bitmap;
+        onFrameListener.onFrame(decodedFrame.bitmap, decodedFrame.frameIndex);
+        BitmapPool.getInstance().put(previousBitmap);
+        shownFrameCount = shownFrameCount + 1;
+        if(isFinished()) {
+            playing = false;
+            return;
+        }
+        // a late frame pushes the following deadlines back instead of being skipped
+        long shownTime = Math.max(nextFrameTime, SystemClock.uptimeMillis());
+        nextFrameTime = shownTime + decodedFrame.delayMillis;
+        handler.postAtTime(showFrameRunnable, nextFrameTime);
+        requestFrames();
+    }
+
+    private void requestFrames() {
+        requestDeadline = Math.max(requestDeadline, SystemClock.uptimeMillis());
+        while(playing && decodedFrameQueue.size() + pendingCount < lookAheadCount
+                && (playCount == 0 || requestedFrameCount < playCount * frameList.size())) {
+            int frameIndex = requestedFrameCount % frameList.size();
+            pendingCount = pendingCount + 1;
+            requestedFrameCount = requestedFrameCount + 1;
+            decodeQueue.submit(new Runnable() {
+                @Override
+                public void run() {
+                    decodeNextFrame();
+                }
+            }, requestDeadline);
+            // the frame after this one is due once this one was shown for its delay
+            requestDeadline = requestDeadline + getDelayMillis(frameTable, frameIndex);
+        }
+    }
+
+    private void onFrameDecoded(DecodedFrame decodedFrame) {
+        pendingCount = pendingCount - 1;
+        if(released) {
+            BitmapPool.getInstance().put(decodedFrame.bitmap);
+            return;
+        }
+        decodedFrameQueue.add(decodedFrame);
+        if(waitingForFrame) {
+            showNextFrame();
+        }
+    }
+
+    /**
+     * Decode thread: draw the frame after the last one, starting over after the last frame.
+     */
+    private void decodeNextFrame() {
+        int frameIndex = decodeFrameIndex + 1;
+        if(frameIndex >= frameList.size()) {
+            frameIndex = 0;
+        }
+        decodeFrameIndex = frameIndex;
+        Bitmap bitmap = BitmapPool.getInstance().get(canvasWidth, canvasHeight, bitmapConfig);
+        try {
+            if(frameCache == null || !drawCachedFrame(frameIndex, bitmap)) {
+                composeFrame(frameIndex);
+                drawCanvas(bitmap);
+            }
+        } catch (ApngFormatException e) {
+            onDecodeFailed(frameIndex, bitmap, e);
+            return;
+        } catch (RuntimeException e) {
+            // corrupt data may also fail inside the inflater or out of the frame region
+            onDecodeFailed(frameIndex, bitmap, e);
+            return;
+        }
+        final DecodedFrame decodedFrame = new DecodedFrame(bitmap, frameIndex,
+                getDelayMillis(frameTable, frameIndex));
+        handler.post(new Runnable() {
+            @Override
+            public void run() {
+                onFrameDecoded(decodedFrame);
+            }
+        });
+    }
+
+    /**
+     * Decode thread: the frame can not be drawn, stop on the frame shown.
+     */
+    private void onDecodeFailed(int frameIndex, Bitmap bitmap, Exception e) {
+        Log.e("Apng", "decode frame " + frameIndex + " failed", e);
+        BitmapPool.getInstance().put(bitmap);
+        handler.post(new Runnable() {
+            @Override
+            public void run() {
+                pendingCount = pendingCount - 1;
+                pause();
+            }
+        });
+    }
+
+    /**
+     * Decode thread: expand the cached frame into the bitmap.
+     *
+     * @return false when the frame is not cached
+     */
+    private boolean drawCachedFrame(int frameIndex, Bitmap bitmap) {
+        switch (pixelFormat) {
+            case INDEXED_8:
+                byte[] indexes = frameCache.getIndexes(contentHash, frameIndex);
+                if(indexes == null) {
+                    return false;
+                }
+                drawIndexes(indexes, bitmap);
+                return true;
+            case RGB_565:
+                short[] rgb565Canvas = frameCache.getRgb565(contentHash, frameIndex);
+                if(rgb565Canvas == null) {
+                    return false;
+                }
+                bitmap.copyPixelsFromBuffer(ShortBuffer.wrap(rgb565Canvas));
+                return true;
+            default:
+                int[] canvas = frameCache.get(contentHash, frameIndex);
+                if(canvas == null) {
+                    return false;
+                }
+                bitmap.setPixels(canvas, 0, canvasWidth, 0, 0, canvasWidth, canvasHeight);
+                return true;
+        }
+    }
+
+    /**
+     * Decode thread: expand the canvas of the compositor into the bitmap.
+     */
+    private void drawCanvas(Bitmap bitmap) {
+        switch (pixelFormat) {
+            case INDEXED_8:
+                drawIndexes(indexedCompositor.getCanvas(), bitmap);
+                break;
+            case RGB_565:
+                if(rgb565Pixels == null) {
+                    rgb565Pixels = new short[canvasWidth * canvasHeight];
+                }
+                PixelFormat.toRgb565(compositor.getCanvas(), rgb565Pixels, rgb565Pixels.length);
+                bitmap.copyPixelsFromBuffer(ShortBuffer.wrap(rgb565Pixels));
+                break;
+            default:
+                bitmap.setPixels(compositor.getCanvas(), 0, canvasWidth, 0, 0, canvasWidth, canvasHeight);
+                break;
+        }
+    }
+
+    private void drawIndexes(byte[] indexes, Bitmap bitmap) {
+        if(expandedPixels == null) {
+            expandedPixels = new int[canvasWidth * canvasHeight];
+        }
+        indexedCompositor.expand(indexes, expandedPixels);
+        bitmap.setPixels(expandedPixels, 0, canvasWidth, 0, 0, canvasWidth, canvasHeight);
+    }
+
+    /**
+     * Decode thread: bring the compositor to the frame. Frames drawn from the cache were not
+     * composited, after a frame was evicted the ones before it are composited again.
+     */
+    private void composeFrame(int frameIndex) throws ApngFormatException {
+        int composedFrameIndex = indexedCompositor != null ? indexedCompositor.getFrameIndex() : compositor.getFrameIndex();
+        if(composedFrameIndex >= frameIndex) {
+            if(indexedCompositor != null) {
+                indexedCompositor.reset();
+            } else {
+                compositor.reset();
+            }
+            composedFrameIndex = -1;
+        }
+        for(int i = composedFrameIndex + 1; i <= frameIndex; i++) {
+            FrameEntity frameEntity = frameList.get(i);
+            FctlChunkEntity fctlChunkEntity = frameEntity.getFrameControlChunk();
+            int frameWidth = SampleSizeUtil.scaleLength(fctlChunkEntity.getxOffset(), fctlChunkEntity.getWidth(), sampleSize);
+            int frameHeight = SampleSizeUtil.scaleLength(fctlChunkEntity.getyOffset(), fctlChunkEntity.getHeight(), sampleSize);
+            boolean composed = false;
+            if(indexedCompositor != null) {
+                if(frameIndexes.length < frameWidth * frameHeight) {
+                    frameIndexes = new byte[frameWidth * frameHeight];
+                }
+                decoder.decode(frameEntity, sampleSize, frameIndexes, 0, frameWidth);
+                composed = indexedCompositor.compose(fctlChunkEntity, frameIndexes, 0, frameWidth);
+                if(!composed) {
+                    leaveIndexedFormat(i);
+                }
+            }
+            if(!composed) {
+                if(framePixels.length < frameWidth * frameHeight) {
+                    framePixels = new int[frameWidth * frameHeight];
+                }
+                decoder.decode(frameEntity, sampleSize, framePixels, 0, frameWidth);
+                compositor.compose(fctlChunkEntity, framePixels, 0, frameWidth);
+            }
+            if(frameCache != null) {
+                cacheFrame(i);
+            }
+        }
+    }
+
+    /**
+     * Decode thread: the frame blends colours missing from the palette, go on in ARGB from the
+     * disposed indexed canvas. The indexed frames cached so far are dropped.
+     */
+    private void leaveIndexedFormat(int frameIndex) {
+        int[] pixels = new int[canvasWidth * canvasHeight];
+        indexedCompositor.expand(indexedCompositor.getCanvas(), pixels);
+        compositor = new ApngCompositor(width, height, sampleSize);
+        compositor.restore(pixels, frameIndex);
+        indexedCompositor = null;
+        expandedPixels = null;
+        frameIndexes = new byte[0];
+        pixelFormat = PixelFormat.ARGB_8888;
+        if(frameCache != null) {
+            frameCache.remove(contentHash);
+            if(!frameCache.isCacheable(canvasWidth, canvasHeight, frameList.size(), pixelFormat.getBytesPerPixel())) {
+                frameCache = null;
+            }
+        }
+    }
+
+    private void cacheFrame(int frameIndex) {
+        switch (pixelFormat) {
+            case INDEXED_8:
+                frameCache.put(contentHash, frameIndex, indexedCompositor.getCanvas().clone());
+                break;
+            case RGB_565:
+                short[] canvas = new short[canvasWidth * canvasHeight];
+                PixelFormat.toRgb565(compositor.getCanvas(), canvas, canvas.length);
+                frameCache.put(contentHash, frameIndex, canvas);
+                break;
+            default:
+                frameCache.put(contentHash, frameIndex, compositor.getCanvas().clone());
+                break;
+        }
+    }
+
+    static int getDelayMillis(FrameTable frameTable, int frameIndex) {
+        int delayDen = frameTable.getDelayDen(frameIndex);
+        if(delayDen == 0) {
+            delayDen = DEFAULT_DELAY_DEN;
+        }
+        return Math.max(MIN_DELAY_MILLIS, frameTable.getDelayNumber(frameIndex) * 1000 / delayDen);
+    }
+}
@@ -0,0 +1,108 @@
+package com.shark.androidapng.apng.pool;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+
+/**
+ * Bitmaps released by one animation are reused by the next frame or the next animation
+ * instead of being allocated again. Bitmaps are keyed by width, height and config and only
+ * reused at exactly that size.
+ *
+ * The pool is shared by the whole process, see {@link #getInstance()}.
+ */
+public class BitmapPool {
+
+    private static final int DEFAULT_MAX_BYTES = (int) Math.min(Runtime.getRuntime().maxMemory() / 16, Integer.MAX_VALUE);
+
+    private static BitmapPool instance;
+
+    private final LruPool<Bitmap> pool;
+
+    public static synchronized BitmapPool getInstance() {
+        if(instance == null) {
+            instance = new BitmapPool(DEFAULT_MAX_BYTES);
+        }
+        return instance;
+    }
+
+    public BitmapPool(int maxBytes) {
+        pool = new LruPool<>(maxBytes, new LruPool.Adapter<Bitmap>() {
+            @Override
+            public int getByteCount(Bitmap bitmap) {
+                return bitmap.getAllocationByteCount();
+            }
+
+            @Override
+            public void onEvicted(Bitmap bitmap) {
+                bitmap.recycle();
+            }
+        });
+    }
+
+    /**
+     * @return a mutable bitmap, its pixels are undefined when it comes from the pool
+     */
+    public Bitmap get(int width, int height, Bitmap.Config config) {
+        Bitmap bitmap = pool.get(getKey(width, height, config));
+        if(bitmap != null) {
+            return bitmap;
+        }
+        return Bitmap.createBitmap(width, height, config);
+    }
+
+    /**
+     * Decode a png into a pooled bitmap when one of the same size was released.
+     */
+    public Bitmap decodeByteArray(byte[] bytes, int offset, int length, int width, int height) {
+        return decodeByteArray(bytes, offset, length, width, height, 1);
+    }
+
+    /**
+     * @param width width of the decoded bitmap, already divided by the sample size
+     * @param sampleSize inSampleSize of BitmapFactory
+     */
+    public Bitmap decodeByteArray(byte[] bytes, int offset, int length, int width, int height, int sampleSize) {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inMutable = true;
+        options.inSampleSize = sampleSize;
+        options.inBitmap = pool.get(getKey(width, height, Bitmap.Config.ARGB_8888));
+        try {
+            return BitmapFactory.decodeByteArray(bytes, offset, length, options);
+        } catch (IllegalArgumentException e) {
+            // the image is not the size it was expected to be, decode without reuse
+            put(options.inBitmap);
+            options.inBitmap = null;
+            return BitmapFactory.decodeByteArray(bytes, offset, length, options);
+        }
+    }
+
+    /**
+     * Give a bitmap back for reuse, it must not be drawn any more.
+     */
+    public void put(Bitmap bitmap) {
+        if(bitmap == null || bitmap.isRecycled()) {
+            return;
+        }
+        if(!bitmap.isMutable() || bitmap.getConfig() == null) {
+            bitmap.recycle();
+            return;
+        }
+        pool.put(getKey(bitmap.getWidth(), bitmap.getHeight(), bitmap.getConfig()), bitmap);
+    }
+
+    public void setMaxBytes(int maxBytes) {
+        pool.setMaxBytes(maxBytes);
+    }
+
+    public void clear() {
+        pool.clear();
+    }
+
+    public LruPool<Bitmap> getPool() {
+        return pool;
+    }
+
+    private static long getKey(int width, int height, Bitmap.Config config) {
+        return (long) width << 36 | (long) height << 8 | config.ordinal();
+    }
+}
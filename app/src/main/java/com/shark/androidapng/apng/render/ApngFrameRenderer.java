@@ -0,0 +1,93 @@
+package com.shark.androidapng.apng.render;
+
+import android.graphics.Bitmap;
+
+import com.shark.androidapng.apng.ApngFormatException;
+import com.shark.androidapng.apng.decoder.PngDecoder;
+import com.shark.androidapng.apng.entity.FctlChunkEntity;
+import com.shark.androidapng.apng.entity.FrameEntity;
+import com.shark.androidapng.apng.pool.BitmapPool;
+
+/**
+ * Draws decoded frames in order onto one canvas bitmap reused for the whole animation. The
+ * canvas bitmap comes from the {@link BitmapPool}, {@link #release()} gives it back.
+ */
+public class ApngFrameRenderer {
+
+    private final ApngCompositor compositor;
+    private Bitmap canvasBitmap;
+    private int[] framePixels = new int[0];
+
+    /**
+     * @param width ihdr width
+     * @param height ihdr height
+     */
+    public ApngFrameRenderer(int width, int height) {
+        compositor = new ApngCompositor(width, height);
+        canvasBitmap = BitmapPool.getInstance().get(width, height, Bitmap.Config.ARGB_8888);
+        canvasBitmap.eraseColor(0);
+    }
+
+    /**
+     * Decode the frame data straight into the frame pixels, no png is rebuilt.
+     *
+     * @return the canvas bitmap showing the animation at this frame, redrawn by the next call
+     */
+    public Bitmap renderFrame(FrameEntity frameEntity, PngDecoder decoder) throws ApngFormatException {
+        FctlChunkEntity fctlChunkEntity = frameEntity.getFrameControlChunk();
+        int frameWidth = fctlChunkEntity.getWidth();
+        ensureFramePixels(frameWidth * fctlChunkEntity.getHeight());
+        decoder.decode(frameEntity, framePixels, 0, frameWidth);
+        compositor.compose(fctlChunkEntity, framePixels, 0, frameWidth);
+        return drawCanvas();
+    }
+
+    /**
+     * @param frameBitmap the frame region as decoded from its fcTL / IDAT
+     * @return the canvas bitmap showing the animation at this frame, redrawn by the next call
+     */
+    public Bitmap renderFrame(FctlChunkEntity fctlChunkEntity, Bitmap frameBitmap) {
+        int frameWidth = fctlChunkEntity.getWidth();
+        int frameHeight = fctlChunkEntity.getHeight();
+        ensureFramePixels(frameWidth * frameHeight);
+        frameBitmap.getPixels(framePixels, 0, frameWidth, 0, 0, frameWidth, frameHeight);
+        compositor.compose(fctlChunkEntity, framePixels, 0, frameWidth);
+        return drawCanvas();
+    }
+
+    private void ensureFramePixels(int size) {
+        if(framePixels.length < size) {
+            framePixels = new int[size];
+        }
+    }
+
+    private Bitmap drawCanvas() {
+        int width = compositor.getWidth();
+        canvasBitmap.setPixels(compositor.getCanvas(), 0, width, 0, 0, width, compositor.getHeight());
+        return canvasBitmap;
+    }
+
+    public void reset() {
+        compositor.reset();
+        canvasBitmap.eraseColor(0);
+    }
+
+    /**
+     * Give the canvas bitmap back to the pool, the renderer must not be used afterwards.
+     */
+    public void release() {
+        BitmapPool.getInstance().put(canvasBitmap);
+        canvasBitmap = null;
+    }
+
+    public Bitmap getCanvasBitmap() {
+        return canvasBitmap;
+    }
+
+    /**
+     * @return index of the last rendered frame, -1 after a reset
+     */
+    public int getFrameIndex() {
+        return compositor.getFrameIndex();
+    }
+}
@@ -0,0 +1,150 @@
+package com.shark.androidapng.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Generated animations for the benchmarks, the same parameters always give the same bytes.
+ *
+ * The first frame covers the canvas, the others are a moving rectangle of half the canvas
+ * size drawn over it. Rows cycle through the five filter types so unfiltering is measured
+ * as well.
+ */
+public class ApngCorpus {
+
+    public enum Colour {
+        PALETTE(3, 1),
+        TRUECOLOUR(2, 3),
+        ALPHA(6, 4);
+
+        private final int colourType;
+        private final int bytesPerPixel;
+
+        Colour(int colourType, int bytesPerPixel) {
+            this.colourType = colourType;
+            this.bytesPerPixel = bytesPerPixel;
+        }
+    }
+
+    private static final byte[] PNG_SIGNATURE = new byte[]{(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+
+    private static final int DISPOSE_OP_NONE = 0;
+    private static final int DISPOSE_OP_BACKGROUND = 1;
+    private static final int BLEND_OP_SOURCE = 0;
+    private static final int BLEND_OP_OVER = 1;
+
+    private ApngCorpus() {
+    }
+
+    /**
+     * @param size width and height of the canvas
+     */
+    public static byte[] create(int size, int frameCount, Colour colour) {
+        try {
+            ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+            DataOutputStream outputStream = new DataOutputStream(byteArrayOutputStream);
+            outputStream.write(PNG_SIGNATURE);
+
+            ByteArrayOutputStream data = new ByteArrayOutputStream();
+            DataOutputStream dataStream = new DataOutputStream(data);
+            dataStream.writeInt(size);
+            dataStream.writeInt(size);
+            dataStream.writeByte(8);
+            dataStream.writeByte(colour.colourType);
+            dataStream.writeByte(0);
+            dataStream.writeByte(0);
+            dataStream.writeByte(0);
+            writeChunk(outputStream, "IHDR", data.toByteArray());
+
+            if(colour == Colour.PALETTE) {
+                byte[] plteBytes = new byte[256 * 3];
+                byte[] trnsBytes = new byte[256];
+                for(int i = 0; i < 256; i++) {
+                    plteBytes[i * 3] = (byte) i;
+                    plteBytes[i * 3 + 1] = (byte) (255 - i);
+                    plteBytes[i * 3 + 2] = (byte) (i * 7);
+                    // binary transparency, like most palette stickers
+                    trnsBytes[i] = (byte) (i < 16 ? 0 : 255);
+                }
+                writeChunk(outputStream, "PLTE", plteBytes);
+                writeChunk(outputStream, "tRNS", trnsBytes);
+            }
+
+            data.reset();
+            dataStream.writeInt(frameCount);
+            dataStream.writeInt(0);
+            writeChunk(outputStream, "acTL", data.toByteArray());
+
+            Random random = new Random(size * 31 + frameCount * 7 + colour.ordinal());
+            int sequenceNumber = 0;
+            for(int frameIndex = 0; frameIndex < frameCount; frameIndex++) {
+                int frameSize = frameIndex == 0 ? size : Math.max(1, size / 2);
+                int xOffset = frameIndex == 0 ? 0 : (frameIndex * 3) % (size - frameSize + 1);
+                int yOffset = frameIndex == 0 ? 0 : (frameIndex * 5) % (size - frameSize + 1);
+                data.reset();
+                dataStream.writeInt(sequenceNumber++);
+                dataStream.writeInt(frameSize);
+                dataStream.writeInt(frameSize);
+                dataStream.writeInt(xOffset);
+                dataStream.writeInt(yOffset);
+                dataStream.writeShort(1);
+                dataStream.writeShort(20);
+                dataStream.writeByte(frameIndex % 4 == 3 ? DISPOSE_OP_BACKGROUND : DISPOSE_OP_NONE);
+                dataStream.writeByte(frameIndex == 0 || colour != Colour.ALPHA ? BLEND_OP_SOURCE : BLEND_OP_OVER);
+                writeChunk(outputStream, "fcTL", data.toByteArray());
+
+                byte[] imageData = createImageData(frameSize, colour, frameIndex, random);
+                if(frameIndex == 0) {
+                    writeChunk(outputStream, "IDAT", imageData);
+                } else {
+                    data.reset();
+                    dataStream.writeInt(sequenceNumber++);
+                    dataStream.write(imageData);
+                    writeChunk(outputStream, "fdAT", data.toByteArray());
+                }
+            }
+            writeChunk(outputStream, "IEND", new byte[0]);
+            return byteArrayOutputStream.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Smooth gradients with some noise, compressing about as well as drawn stickers do.
+     */
+    private static byte[] createImageData(int size, Colour colour, int frameIndex, Random random) throws IOException {
+        int rowLength = size * colour.bytesPerPixel;
+        byte[] rowBytes = new byte[rowLength + 1];
+        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+        DeflaterOutputStream outputStream = new DeflaterOutputStream(byteArrayOutputStream, deflater);
+        for(int y = 0; y < size; y++) {
+            rowBytes[0] = (byte) (y % 5);
+            for(int i = 0; i < rowLength; i++) {
+                rowBytes[i + 1] = (byte) (i / colour.bytesPerPixel * 3 + y * 5 + frameIndex * 7 + i % colour.bytesPerPixel * 60 + random.nextInt(4));
+            }
+            outputStream.write(rowBytes);
+        }
+        outputStream.close();
+        deflater.end();
+        return byteArrayOutputStream.toByteArray();
+    }
+
+    private static void writeChunk(DataOutputStream outputStream, String tag, byte[] data) throws IOException {
+        byte[] tagBytes = tag.getBytes(StandardCharsets.US_ASCII);
+        CRC32 crc32 = new CRC32();
+        crc32.update(tagBytes);
+        crc32.update(data);
+        outputStream.writeInt(data.length);
+        outputStream.write(tagBytes);
+        outputStream.write(data);
+        outputStream.writeInt((int) crc32.getValue());
+    }
+}
@@ -0,0 +1,73 @@
+package com.shark.androidapng.benchmark;
+
+import com.shark.androidapng.apng.ApngFormatException;
+import com.shark.androidapng.apng.ApngParser;
+import com.shark.androidapng.apng.render.ApngBatchDecoder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Whole animation decode of {@link ApngBatchDecoder}, compare the parallelism values to see
+ * how it scales with the cores.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BatchBenchmark {
+
+    @Param({"512"})
+    public int size;
+
+    @Param({"100"})
+    public int frameCount;
+
+    @Param({"TRUECOLOUR", "ALPHA"})
+    public ApngCorpus.Colour colour;
+
+    @Param({"1", "2", "4"})
+    public int parallelism;
+
+    private ForkJoinPool forkJoinPool;
+    private ApngBatchDecoder batchDecoder;
+
+    @Setup
+    public void setUp() throws ApngFormatException {
+        ApngParser apngParser = new ApngParser(ApngCorpus.create(size, frameCount, colour));
+        forkJoinPool = new ForkJoinPool(parallelism);
+        batchDecoder = new ApngBatchDecoder(apngParser.getFrameList(), apngParser.getFrameAssembler(),
+                apngParser.getWidth(), apngParser.getHeight(), forkJoinPool);
+    }
+
+    @TearDown
+    public void tearDown() {
+        forkJoinPool.shutdown();
+    }
+
+    @Benchmark
+    public int[][] decodeFrames() throws ApngFormatException {
+        return batchDecoder.decodeFrames();
+    }
+
+    @Benchmark
+    public int decodeAndComposeFrames() throws ApngFormatException {
+        final int[] checksum = new int[1];
+        batchDecoder.compose(new ApngBatchDecoder.OnFrameListener() {
+            @Override
+            public void onFrame(int[] canvas, int frameIndex) {
+                checksum[0] = checksum[0] + canvas[frameIndex % canvas.length];
+            }
+        });
+        return checksum[0];
+    }
+}
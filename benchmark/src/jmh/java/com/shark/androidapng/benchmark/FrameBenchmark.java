@@ -0,0 +1,125 @@
+package com.shark.androidapng.benchmark;
+
+import com.shark.androidapng.apng.ApngFormatException;
+import com.shark.androidapng.apng.ApngFrameAssembler;
+import com.shark.androidapng.apng.ApngStreamParser;
+import com.shark.androidapng.apng.decoder.PngDecoder;
+import com.shark.androidapng.apng.entity.ChunkEntity;
+import com.shark.androidapng.apng.entity.FctlChunkEntity;
+import com.shark.androidapng.apng.entity.FdatChunkEntity;
+import com.shark.androidapng.apng.entity.FrameEntity;
+import com.shark.androidapng.apng.render.ApngCompositor;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per frame cost, every operation works on the frame after the one of the previous operation
+ * so all frame sizes of the animation are measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FrameBenchmark {
+
+    @Param({"64", "512"})
+    public int size;
+
+    @Param({"4", "100"})
+    public int frameCount;
+
+    @Param({"PALETTE", "TRUECOLOUR", "ALPHA"})
+    public ApngCorpus.Colour colour;
+
+    private final List<FrameEntity> frameList = new ArrayList<>();
+    private ApngFrameAssembler frameAssembler;
+    private PngDecoder decoder;
+    private ApngCompositor compositor;
+    private int[] framePixels;
+    private int frameIndex;
+
+    @Setup
+    public void setUp() throws IOException {
+        ApngStreamParser streamParser = new ApngStreamParser(new ByteArrayInputStream(ApngCorpus.create(size, frameCount, colour)));
+        int eventType = streamParser.next();
+        while(eventType != ApngStreamParser.END_IMAGE) {
+            if(eventType == ApngStreamParser.FRAME) {
+                frameList.add(streamParser.getFrameEntity());
+            }
+            eventType = streamParser.next();
+        }
+        frameAssembler = streamParser.getFrameAssembler();
+        decoder = streamParser.createDecoder();
+        compositor = new ApngCompositor(size, size);
+        framePixels = new int[size * size];
+    }
+
+    @TearDown
+    public void tearDown() {
+        decoder.release();
+    }
+
+    /**
+     * A standalone png of the frame, what BitmapFactory is given.
+     */
+    @Benchmark
+    public byte[] assembleFrame() {
+        return frameAssembler.assemble(nextFrame());
+    }
+
+    /**
+     * The fdAT to IDAT copy with its crc, the first frame is an IDAT and costs nothing.
+     */
+    @Benchmark
+    public ChunkEntity rewriteFdat() {
+        ChunkEntity frameDataChunk = nextFrame().getRawFrameDataChunk();
+        if(frameDataChunk instanceof FdatChunkEntity) {
+            return ((FdatChunkEntity) frameDataChunk).toIdatChunkEntity();
+        }
+        return frameDataChunk;
+    }
+
+    /**
+     * Inflate and unfilter of the frame region.
+     */
+    @Benchmark
+    public int[] decodeFrame() throws ApngFormatException {
+        FrameEntity frameEntity = nextFrame();
+        decoder.decode(frameEntity, framePixels, 0, frameEntity.getFrameControlChunk().getWidth());
+        return framePixels;
+    }
+
+    /**
+     * Decode and composite onto the canvas, what the player does for every frame shown.
+     */
+    @Benchmark
+    public int[] decodeAndComposeFrame() throws ApngFormatException {
+        if(frameIndex == 0) {
+            compositor.reset();
+        }
+        FrameEntity frameEntity = nextFrame();
+        FctlChunkEntity fctlChunkEntity = frameEntity.getFrameControlChunk();
+        decoder.decode(frameEntity, framePixels, 0, fctlChunkEntity.getWidth());
+        compositor.compose(fctlChunkEntity, framePixels, 0, fctlChunkEntity.getWidth());
+        return compositor.getCanvas();
+    }
+
+    private FrameEntity nextFrame() {
+        FrameEntity frameEntity = frameList.get(frameIndex);
+        frameIndex = (frameIndex + 1) % frameList.size();
+        return frameEntity;
+    }
+}
@@ -0,0 +1,184 @@
+package com.shark.androidapng.benchmark;
+
+import com.shark.androidapng.apng.ApngFormatException;
+import com.shark.androidapng.apng.ApngIndex;
+import com.shark.androidapng.apng.ApngParser;
+import com.shark.androidapng.apng.ApngStreamParser;
+import com.shark.androidapng.apng.CrcVerifyMode;
+import com.shark.androidapng.apng.entity.ChunkEntity;
+import com.shark.androidapng.apng.source.ByteArraySource;
+import com.shark.androidapng.apng.source.MappedFileSource;
+import com.shark.androidapng.util.ByteUtil;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of reading the chunk structure of a whole file, the allocation per parse is reported by
+ * the gc profiler.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ParseBenchmark {
+
+    @Param({"64", "512"})
+    public int size;
+
+    @Param({"4", "100"})
+    public int frameCount;
+
+    @Param({"PALETTE", "TRUECOLOUR", "ALPHA"})
+    public ApngCorpus.Colour colour;
+
+    private byte[] imageBytes;
+    private ByteBuffer imageBuffer;
+    private ApngIndex apngIndex;
+    private File imageFile;
+    private MappedFileSource mappedFileSource;
+
+    @Setup
+    public void setUp() throws IOException {
+        imageBytes = ApngCorpus.create(size, frameCount, colour);
+        imageBuffer = ByteBuffer.wrap(imageBytes);
+        apngIndex = new ApngParser(imageBytes).createIndex();
+        imageFile = File.createTempFile("parse", ".png");
+        FileOutputStream outputStream = new FileOutputStream(imageFile);
+        try {
+            outputStream.write(imageBytes);
+        } finally {
+            outputStream.close();
+        }
+        mappedFileSource = new MappedFileSource(imageFile);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        mappedFileSource.close();
+        imageFile.delete();
+    }
+
+    /**
+     * The whole file indexed, every frame kept.
+     */
+    @Benchmark
+    public ApngParser parse() throws ApngFormatException {
+        return new ApngParser(new ByteArraySource(imageBytes));
+    }
+
+    /**
+     * The whole file indexed with the crc of every chunk but the image data checked.
+     */
+    @Benchmark
+    public ApngParser parseVerifyHeaders() throws ApngFormatException {
+        return new ApngParser.Builder().setCrcVerifyMode(CrcVerifyMode.HEADERS).build(imageBytes);
+    }
+
+    /**
+     * The whole file indexed with the crc of every chunk checked, the source hands out a read
+     * only view of its array.
+     */
+    @Benchmark
+    public ApngParser parseVerifyFull() throws ApngFormatException {
+        return new ApngParser.Builder().setCrcVerifyMode(CrcVerifyMode.FULL).build(imageBytes);
+    }
+
+    /**
+     * The same from a mapped file, whose buffer is direct.
+     */
+    @Benchmark
+    public ApngParser parseMappedVerifyFull() throws ApngFormatException {
+        return new ApngParser.Builder().setCrcVerifyMode(CrcVerifyMode.FULL).build(mappedFileSource);
+    }
+
+    /**
+     * The same image reopened with its index.
+     */
+    @Benchmark
+    public ApngParser parseWithIndex() throws ApngFormatException {
+        return new ApngParser(new ByteArraySource(imageBytes), apngIndex);
+    }
+
+    /**
+     * Every chunk read, frames handed out as entities.
+     */
+    @Benchmark
+    public void streamParse(Blackhole blackhole) throws IOException {
+        ApngStreamParser streamParser = new ApngStreamParser(new ByteArrayInputStream(imageBytes));
+        int eventType = streamParser.next();
+        while(eventType != ApngStreamParser.END_IMAGE) {
+            if(eventType == ApngStreamParser.FRAME) {
+                blackhole.consume(streamParser.getFrameEntity());
+            }
+            eventType = streamParser.next();
+        }
+    }
+
+    /**
+     * The byte scan which used to decide whether an image is animated, as a baseline.
+     */
+    @Benchmark
+    public int indexOfActl() {
+        return indexOf(imageBuffer, ApngParser.ACTL_TAG_BYTES);
+    }
+
+    /**
+     * The chunk walk deciding whether an image is animated.
+     */
+    @Benchmark
+    public int findActlOffset() {
+        return ApngParser.findActlOffset(imageBuffer);
+    }
+
+    /**
+     * The same decision from a stream, the loader runs it on every image.
+     */
+    @Benchmark
+    public boolean probe() throws IOException {
+        return ApngParser.probe(new ByteArrayInputStream(imageBytes));
+    }
+
+    /**
+     * Walking the chunks and copying every data payload out, as reading chunk fields through
+     * {@link ChunkEntity#getDataBytes()} does.
+     */
+    @Benchmark
+    public void subBytesPerChunk(Blackhole blackhole) {
+        int offset = 8;
+        while(offset + ChunkEntity.LENGTH_BYTES_LENGTH < imageBytes.length) {
+            int length = imageBuffer.getInt(offset);
+            int dataOffset = offset + ChunkEntity.LENGTH_BYTES_LENGTH + ChunkEntity.TAG_BYTES_LENGTH;
+            blackhole.consume(ByteUtil.subBytes(imageBuffer, dataOffset, dataOffset + length));
+            offset = dataOffset + length + ChunkEntity.CRC_BYTES_LENGTH;
+        }
+    }
+
+    private static int indexOf(ByteBuffer buffer, byte[] bytes) {
+        for (int i = 0; i < buffer.limit() - bytes.length + 1; i++) {
+            boolean found = true;
+            for (int j = 0; j < bytes.length; j++) {
+                if (buffer.get(i + j) != bytes[j]) {
+                    found = false;
+                    break;
+                }
+            }
+            if (found) return i;
+        }
+        return -1;
+    }
+}